@@ -1,8 +1,13 @@
 package hello.core;
 
 import hello.core.discount.DiscountPolicy;
+import hello.core.discount.DiscountService;
 import hello.core.discount.FixDiscountPolicy;
 import hello.core.discount.RateDiscountPolicy;
+import hello.core.discount.RuleDiscountPolicy;
+import hello.core.discount.SwitchableDiscountPolicy;
+import hello.core.member.CachingMemberRepository;
+import hello.core.member.FileMemberRepository;
 import hello.core.member.MemberRepository;
 import hello.core.member.MemberService;
 import hello.core.member.MemberServiceImpl;
@@ -12,6 +17,9 @@ import hello.core.order.OrderServiceImpl;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Paths;
+import java.util.Map;
+
 @Configuration
 public class AppConfig {
 
@@ -25,8 +33,9 @@ public class AppConfig {
     }
 
     @Bean
-    public MemoryMemberRepository memberRepository() {
+    public MemberRepository memberRepository() {
         System.out.println("call AppConfig.memberRepository");
+//        return new CachingMemberRepository(new FileMemberRepository(Paths.get("members.log")), 10_000);
         return new MemoryMemberRepository();
     }
 
@@ -39,6 +48,15 @@ public class AppConfig {
     @Bean
     public DiscountPolicy discountPolicy() {
 //        return new FixDiscountPolicy();
-        return new RateDiscountPolicy();
+//        return RuleDiscountPolicy.fromResource("discount-rules.txt");
+        // 실행 중에 정책을 바꿀 수 있도록 감싼다
+        return new SwitchableDiscountPolicy(new RateDiscountPolicy());
+    }
+
+    // 할인 코드(정책 빈 이름)로 정책을 골라 적용한다
+    @Bean
+    public DiscountService discountService(Map<String, DiscountPolicy> discountPolicies) {
+        System.out.println("call AppConfig.discountService");
+        return new DiscountService(discountPolicies);
     }
 }
@@ -2,13 +2,13 @@ package hello.core.ch06.member;
 
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class MemoryMemberRepository implements MemberRepository {
 
-    private final Map<Long, Member> store = new HashMap<>();
+    private final Map<Long, Member> store = new ConcurrentHashMap<>();
 
     @Override
     public void save(Member member) {
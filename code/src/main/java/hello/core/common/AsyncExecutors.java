@@ -0,0 +1,75 @@
+package hello.core.common;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 비동기 서비스가 사용할 실행기를 만든다.
+ * 가상 스레드를 지원하는 JDK(21 이상)에서는 작업마다 가상 스레드를 쓰고, 아니면 블로킹 작업용으로 크게 잡은 스레드 풀을 쓴다.
+ * 저장소 조회처럼 대부분의 시간을 기다리는 작업은 CPU 수만큼의 풀(work-stealing 등)에서는 모든 스레드를 붙잡아 버린다.
+ */
+public final class AsyncExecutors {
+
+    // 동시에 기다릴 수 있는 요청 수 = 처리량 x 지연. 1ms 걸리는 조회를 초당 약 25만 건까지 처리할 수 있는 크기
+    public static final int DEFAULT_BLOCKING_THREADS = 256;
+
+    private AsyncExecutors() {
+    }
+
+    public static ExecutorService create() {
+        return create(DEFAULT_BLOCKING_THREADS);
+    }
+
+    /**
+     * @param blockingThreads 가상 스레드를 쓸 수 없을 때 풀의 최대 스레드 수
+     */
+    public static ExecutorService create(int blockingThreads) {
+        ExecutorService virtualThreads = virtualThreadPerTask();
+        return virtualThreads != null ? virtualThreads : blocking(blockingThreads);
+    }
+
+    /**
+     * @return 가상 스레드 실행기, 지원하지 않는 JDK 면 null
+     */
+    public static ExecutorService virtualThreadPerTask() {
+        try {
+            // 소스 호환성(Java 11)을 유지하려고 리플렉션으로 호출한다
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 스레드 수가 threads 로 제한된 풀. 스레드는 필요할 때 만들고, 1분 동안 쉬면 정리한다.
+     * 스레드가 모두 일하는 중이면 작업은 큐에서 기다린다.
+     */
+    public static ExecutorService blocking(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), new DaemonThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "async-blocking-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
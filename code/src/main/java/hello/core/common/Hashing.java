@@ -0,0 +1,21 @@
+package hello.core.common;
+
+/**
+ * long 키(회원 id 등)의 비트를 고르게 섞는 해시 함수.
+ * 연속된 id 처럼 아래 비트만 다른 키도 64비트 전체에 고르게 퍼지므로, 결과의 어느 비트 구간을 잘라 써도 된다.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    // murmur3 fmix64
+    public static long mix64(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,217 @@
+package hello.core.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 자주 나오는 값(heavy hitter)을 capacity 개의 카운터로만 추적하는 Space-Saving 스케치.
+ * 추정치는 실제 횟수보다 작지 않고, 많아야 total / capacity 만큼 크다.
+ * 실제 횟수가 total / capacity 보다 많은 값은 반드시 추적 목록에 남는다.
+ * 카운터는 최소 힙으로 관리하므로 가장 작은 카운터를 교체하는 데 O(log capacity) 가 걸린다. 스레드 안전하지 않다.
+ */
+public final class SpaceSaving<T> {
+
+    private final int capacity;
+    private final Map<T, Counter<T>> counters;
+    private final Counter<T>[] heap;
+    private int size;
+    private long total;
+
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    public void add(T item) {
+        add(item, 1);
+    }
+
+    public void add(T item, long weight) {
+        total += weight;
+        Counter<T> counter = counters.get(item);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.heapIndex);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter<>(item, weight, 0);
+            counter.heapIndex = size;
+            heap[size++] = counter;
+            counters.put(item, counter);
+            siftUp(counter.heapIndex);
+            return;
+        }
+
+        // 가장 작은 카운터를 새 값에 넘겨준다. 이전 횟수만큼은 과대 추정일 수 있다
+        Counter<T> min = heap[0];
+        counters.remove(min.item);
+        min.item = item;
+        min.error = min.count;
+        min.count += weight;
+        counters.put(item, min);
+        siftDown(0);
+    }
+
+    /**
+     * @return 실제 횟수의 상한. 추적하지 않는 값이면 추적 중인 가장 작은 횟수
+     */
+    public long estimate(T item) {
+        Counter<T> counter = counters.get(item);
+        return counter != null ? counter.count : minCount();
+    }
+
+    public long total() {
+        return total;
+    }
+
+    // 추적하지 않는 값이 가질 수 있는 최대 횟수 (목록이 가득 차지 않았으면 0)
+    public long minCount() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    /**
+     * @return 횟수가 많은 순서로 최대 n 개
+     */
+    public List<Entry<T>> top(int n) {
+        List<Entry<T>> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry<>(heap[i].item, heap[i].count, heap[i].error));
+        }
+        entries.sort((a, b) -> Long.compare(b.count, a.count));
+        return entries.subList(0, Math.min(n, entries.size()));
+    }
+
+    /**
+     * other 의 내용을 합친다. 한쪽에만 있는 값은 다른 쪽의 minCount 를 더해서 상한을 유지한다.
+     */
+    public void merge(SpaceSaving<T> other) {
+        long thisMin = minCount();
+        long otherMin = other.minCount();
+        long mergedTotal = total + other.total;
+        Set<T> items = new HashSet<>(counters.keySet());
+        items.addAll(other.counters.keySet());
+
+        List<Counter<T>> merged = new ArrayList<>(items.size());
+        for (T item : items) {
+            Counter<T> mine = counters.get(item);
+            Counter<T> theirs = other.counters.get(item);
+            long count = (mine != null ? mine.count : thisMin) + (theirs != null ? theirs.count : otherMin);
+            long error = (mine != null ? mine.error : thisMin) + (theirs != null ? theirs.error : otherMin);
+            merged.add(new Counter<>(item, count, error));
+        }
+        merged.sort((a, b) -> Long.compare(b.count, a.count));
+
+        clear();
+        total = mergedTotal;
+        for (Counter<T> counter : merged.subList(0, Math.min(capacity, merged.size()))) {
+            counter.heapIndex = size;
+            heap[size++] = counter;
+            counters.put(counter.item, counter);
+            siftUp(counter.heapIndex);
+        }
+    }
+
+    public void clear() {
+        counters.clear();
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        size = 0;
+        total = 0;
+    }
+
+    private void siftUp(int index) {
+        Counter<T> counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<T> counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter<T> counter, int index) {
+        heap[index] = counter;
+        counter.heapIndex = index;
+    }
+
+    private static final class Counter<T> {
+        T item;
+        long count;
+        long error;
+        int heapIndex;
+
+        Counter(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    public static final class Entry<T> {
+        private final T item;
+        private final long count;
+        private final long error;
+
+        Entry(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        // 실제 횟수의 상한
+        public long getCount() {
+            return count;
+        }
+
+        // count - error 가 실제 횟수의 하한이다
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "item=" + item +
+                    ", count=" + count +
+                    ", error=" + error +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package hello.core.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 쓰는 스레드 하나, 읽는 스레드 하나 사이의 고정 크기 링 버퍼.
+ * 각 쪽은 자기 위치만 갱신하므로 CAS 없이 lazySet(release 쓰기) 만으로 동작한다.
+ */
+public final class SpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // 다음에 읽을 위치 (읽는 쪽만 갱신)
+    private final AtomicLong tail = new AtomicLong(); // 다음에 쓸 위치 (쓰는 쪽만 갱신)
+
+    // 상대편 위치를 매번 volatile 로 읽지 않도록 캐시한다
+    private long cachedHead;
+    private long cachedTail;
+
+    public SpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return 버퍼가 가득 찼으면 false
+     */
+    public boolean offer(E element) {
+        long t = tail.get();
+        if (t - cachedHead >= slots.length()) {
+            cachedHead = head.get();
+            if (t - cachedHead >= slots.length()) {
+                return false;
+            }
+        }
+        slots.lazySet((int) (t & mask), element);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * 최대 batch.length 개를 한 번에 꺼낸다.
+     *
+     * @return 꺼낸 개수
+     */
+    public int drainTo(E[] batch) {
+        long h = head.get();
+        if (h >= cachedTail) {
+            cachedTail = tail.get();
+            if (h >= cachedTail) {
+                return 0;
+            }
+        }
+        int count = (int) Math.min(batch.length, cachedTail - h);
+        for (int i = 0; i < count; i++) {
+            int index = (int) ((h + i) & mask);
+            batch[i] = slots.get(index);
+            slots.lazySet(index, null);
+        }
+        head.lazySet(h + count);
+        return count;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+}
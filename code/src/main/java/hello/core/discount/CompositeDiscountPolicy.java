@@ -0,0 +1,206 @@
+package hello.core.discount;
+
+import hello.core.member.Member;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 여러 할인 정책(등급 할인, 쿠폰, 시즌 프로모션 등)을 함께 적용하는 DiscountPolicy.
+ * 일반 규칙의 할인은 더하고, exclusive 규칙은 다른 할인과 합치지 않고 단독으로만 적용된다. 결과는
+ * min(상한, max(일반 규칙 할인의 합, 가장 큰 exclusive 할인)) 이며 상한은 가격의 capPercent% 이다.
+ * 이 결과는 규칙 순서와 관계없으므로, 상한에 닿는 즉시 남은 규칙을 건너뛰고, 관찰한 통계로 순서를 바꿔도(reorderByObservedSelectivity) 할인 금액은 같다.
+ * 통계는 sampleRate(기본 64)번에 한 번만 기록한다. 그 호출에서 규칙마다 호출 수, 적중 수(할인 금액 > 0), 걸린 시간을 더한다.
+ */
+public class CompositeDiscountPolicy implements DiscountPolicy {
+
+    private final int capPercent;
+    private final int sampleRate;
+    private volatile Rule[] rules;
+
+    public CompositeDiscountPolicy(List<DiscountPolicy> policies, int capPercent) {
+        this(policies, capPercent, Collections.emptySet());
+    }
+
+    public CompositeDiscountPolicy(List<DiscountPolicy> policies, int capPercent, Collection<? extends DiscountPolicy> exclusive) {
+        this(policies, capPercent, exclusive, 64);
+    }
+
+    /**
+     * @param sampleRate 몇 번에 한 번 통계를 기록할지 (1 이면 매번)
+     */
+    public CompositeDiscountPolicy(List<DiscountPolicy> policies, int capPercent, Collection<? extends DiscountPolicy> exclusive, int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate must be positive: " + sampleRate);
+        }
+        if (capPercent < 0 || capPercent > 100) {
+            throw new IllegalArgumentException("capPercent must be between 0 and 100: " + capPercent);
+        }
+        this.capPercent = capPercent;
+        this.sampleRate = sampleRate;
+        Rule[] rules = new Rule[policies.size()];
+        for (int i = 0; i < rules.length; i++) {
+            DiscountPolicy policy = policies.get(i);
+            rules[i] = new Rule(policy, exclusive.contains(policy));
+        }
+        this.rules = rules;
+    }
+
+    @Override
+    public int discount(Member member, int price) {
+        // price * capPercent 는 약 2천만 원부터 int 를 넘는다
+        int cap = (int) ((long) price * capPercent / 100);
+        Rule[] rules = this.rules;
+        if (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            return sampledDiscount(rules, member, price, cap);
+        }
+        long stacked = 0;
+        int best = 0;
+        for (Rule rule : rules) {
+            int discount = rule.policy.discount(member, price);
+            if (discount <= 0) {
+                continue;
+            }
+            if (rule.exclusive) {
+                best = Math.max(best, discount);
+            } else {
+                stacked += discount;
+            }
+            // 상한에 닿으면 남은 규칙은 결과를 바꾸지 못한다
+            if (stacked >= cap || best >= cap) {
+                return cap;
+            }
+        }
+        return (int) Math.max(stacked, best);
+    }
+
+    // discount 와 같은 계산에 규칙별 시간과 적중을 기록한다
+    private static int sampledDiscount(Rule[] rules, Member member, int price, int cap) {
+        long stacked = 0;
+        int best = 0;
+        for (Rule rule : rules) {
+            long start = System.nanoTime();
+            int discount = rule.policy.discount(member, price);
+            rule.nanos.add(System.nanoTime() - start);
+            rule.calls.increment();
+            if (discount <= 0) {
+                continue;
+            }
+            rule.hits.increment();
+            if (rule.exclusive) {
+                best = Math.max(best, discount);
+            } else {
+                stacked += discount;
+            }
+            if (stacked >= cap || best >= cap) {
+                return cap;
+            }
+        }
+        return (int) Math.max(stacked, best);
+    }
+
+    /**
+     * 규칙 순서를 (적중률 / 평균 비용) 이 큰 순서로 바꾼다. 싸고 자주 적중하는 규칙이 앞에 올수록 상한에서 일찍 끝난다.
+     * 아직 시간을 잰 적이 없는 규칙은 현재 위치의 상대 순서를 유지한 채 뒤로 간다.
+     */
+    public void reorderByObservedSelectivity() {
+        synchronized (this) {
+            Rule[] reordered = rules.clone();
+            Arrays.sort(reordered, Comparator.comparingDouble(Rule::score).reversed());
+            rules = reordered;
+        }
+    }
+
+    // 현재 평가 순서대로의 규칙별 통계
+    public List<RuleStats> getStats() {
+        Rule[] rules = this.rules;
+        List<RuleStats> stats = new ArrayList<>(rules.length);
+        for (Rule rule : rules) {
+            long calls = rule.calls.sum();
+            stats.add(new RuleStats(rule.policy, rule.exclusive, calls, rule.hits.sum(), calls == 0 ? 0 : rule.nanos.sum() / calls));
+        }
+        return stats;
+    }
+
+    private static final class Rule {
+        final DiscountPolicy policy;
+        final boolean exclusive;
+        final LongAdder calls = new LongAdder();
+        final LongAdder hits = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        Rule(DiscountPolicy policy, boolean exclusive) {
+            this.policy = policy;
+            this.exclusive = exclusive;
+        }
+
+        double score() {
+            long calls = this.calls.sum();
+            if (calls == 0) {
+                return 0;
+            }
+            double hitRate = (double) hits.sum() / calls;
+            double averageNanos = Math.max(1.0, (double) nanos.sum() / calls);
+            return hitRate / averageNanos;
+        }
+    }
+
+    public static final class RuleStats {
+        private final DiscountPolicy policy;
+        private final boolean exclusive;
+        private final long calls;
+        private final long hits;
+        private final long averageNanos;
+
+        RuleStats(DiscountPolicy policy, boolean exclusive, long calls, long hits, long averageNanos) {
+            this.policy = policy;
+            this.exclusive = exclusive;
+            this.calls = calls;
+            this.hits = hits;
+            this.averageNanos = averageNanos;
+        }
+
+        public DiscountPolicy getPolicy() {
+            return policy;
+        }
+
+        public boolean isExclusive() {
+            return exclusive;
+        }
+
+        // 통계를 기록한 호출 중 이 규칙까지 평가한 수. 상한에서 먼저 끝나 건너뛴 호출은 세지 않는다
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public double getHitRate() {
+            return calls == 0 ? 0 : (double) hits / calls;
+        }
+
+        // nanoTime 자체의 비용이 포함된다
+        public long getAverageNanos() {
+            return averageNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "RuleStats{" +
+                    "policy=" + policy.getClass().getSimpleName() +
+                    ", exclusive=" + exclusive +
+                    ", calls=" + calls +
+                    ", hits=" + hits +
+                    ", averageNanos=" + averageNanos +
+                    '}';
+        }
+    }
+}
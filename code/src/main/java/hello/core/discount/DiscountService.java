@@ -0,0 +1,162 @@
+package hello.core.discount;
+
+import hello.core.common.Hashing;
+import hello.core.member.Member;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 할인 코드(빈 이름)로 할인 정책을 골라 적용한다. 주입받은 Map&lt;String, DiscountPolicy&gt; 는 생성할 때 한 번만 읽는다.
+ * 코드마다 정수 핸들(코드 이름 순서의 0 ~ size-1)을 붙이고, 코드 -> 핸들은 충돌 없는 해시 테이블(perfect hash)로 찾는다.
+ * 칸은 String.hashCode 로 고르므로, "Aa" 와 "BB" 처럼 hashCode 가 같은 코드들은 한 칸을 나눠 쓰고 그 안에서 equals 로 가린다.
+ * 자주 쓰는 코드는 handleOf 로 핸들을 미리 구해 두고 discount(member, price, handle) 을 호출하면 문자열을 보지 않는다.
+ * 모르는 코드나 잘못된 핸들은 fallback 정책(기본은 할인 없음)으로 계산한다.
+ */
+public class DiscountService {
+
+    public static final int UNKNOWN = -1;
+
+    private static final DiscountPolicy NO_DISCOUNT = (member, price) -> 0;
+
+    private final String[] codes;
+    private final DiscountPolicy[] policies;
+    private final DiscountPolicy fallback;
+
+    // slot -> 핸들 (빈 칸은 UNKNOWN, hashCode 가 같은 코드들의 칸은 -2 - groups 의 번호)
+    private final int[] table;
+    private final int seed;
+    // hashCode 가 같은 코드들의 핸들 묶음
+    private final int[][] groups;
+
+    public DiscountService(Map<String, DiscountPolicy> policyMap) {
+        this(policyMap, NO_DISCOUNT);
+    }
+
+    public DiscountService(Map<String, DiscountPolicy> policyMap, DiscountPolicy fallback) {
+        // 주입 순서와 관계없이 같은 핸들이 나오도록 이름 순으로 정렬한다
+        TreeMap<String, DiscountPolicy> sorted = new TreeMap<>(policyMap);
+        this.codes = sorted.keySet().toArray(new String[0]);
+        this.policies = sorted.values().toArray(new DiscountPolicy[0]);
+        this.fallback = fallback;
+
+        Map<Integer, List<Integer>> byHash = new LinkedHashMap<>();
+        for (int handle = 0; handle < codes.length; handle++) {
+            byHash.computeIfAbsent(codes[handle].hashCode(), key -> new ArrayList<>()).add(handle);
+        }
+        // 서로 다른 hashCode 와 그 칸에 넣을 값
+        int[] hashes = new int[byHash.size()];
+        int[] entries = new int[byHash.size()];
+        List<int[]> groups = new ArrayList<>();
+        int index = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : byHash.entrySet()) {
+            List<Integer> handles = entry.getValue();
+            hashes[index] = entry.getKey();
+            if (handles.size() == 1) {
+                entries[index] = handles.get(0);
+            } else {
+                entries[index] = -2 - groups.size();
+                groups.add(handles.stream().mapToInt(Integer::intValue).toArray());
+            }
+            index++;
+        }
+        this.groups = groups.toArray(new int[0][]);
+
+        int capacity = Integer.highestOneBit(Math.max(1, hashes.length) * 2 - 1) << 1;
+        while (true) {
+            int found = findSeed(hashes, capacity);
+            if (found != UNKNOWN) {
+                this.seed = found;
+                this.table = fill(hashes, entries, capacity, found);
+                return;
+            }
+            capacity <<= 1;
+        }
+    }
+
+    /**
+     * @return 코드의 핸들. 모르는 코드면 UNKNOWN
+     */
+    public int handleOf(String discountCode) {
+        if (discountCode == null) {
+            return UNKNOWN;
+        }
+        int handle = table[slot(discountCode.hashCode(), seed, table.length)];
+        if (handle >= 0) {
+            // 같은 String 객체면 equals 는 참조 비교로 끝난다
+            return codes[handle].equals(discountCode) ? handle : UNKNOWN;
+        }
+        return handle == UNKNOWN ? UNKNOWN : findInGroup(groups[-2 - handle], discountCode);
+    }
+
+    /**
+     * @return 핸들의 코드. discount 가 fallback 으로 계산하는 핸들(UNKNOWN, 범위 밖)이면 null
+     */
+    public String codeOf(int handle) {
+        return isKnown(handle) ? codes[handle] : null;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public int discount(Member member, int price, String discountCode) {
+        return discount(member, price, handleOf(discountCode));
+    }
+
+    public int discount(Member member, int price, int handle) {
+        DiscountPolicy policy = isKnown(handle) ? policies[handle] : fallback;
+        return policy.discount(member, price);
+    }
+
+    private boolean isKnown(int handle) {
+        return handle >= 0 && handle < policies.length;
+    }
+
+    private int findInGroup(int[] handles, String discountCode) {
+        for (int handle : handles) {
+            if (codes[handle].equals(discountCode)) {
+                return handle;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    // 서로 다른 hashCode 가 모두 서로 다른 칸에 들어가는 seed 를 찾는다. 없으면 UNKNOWN
+    private static int findSeed(int[] hashes, int capacity) {
+        boolean[] used = new boolean[capacity];
+        for (int candidate = 0; candidate < 64; candidate++) {
+            Arrays.fill(used, false);
+            boolean collided = false;
+            for (int hash : hashes) {
+                int slot = slot(hash, candidate, capacity);
+                if (used[slot]) {
+                    collided = true;
+                    break;
+                }
+                used[slot] = true;
+            }
+            if (!collided) {
+                return candidate;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static int[] fill(int[] hashes, int[] entries, int capacity, int seed) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, UNKNOWN);
+        for (int i = 0; i < hashes.length; i++) {
+            table[slot(hashes[i], seed, capacity)] = entries[i];
+        }
+        return table;
+    }
+
+    private static int slot(int hash, int seed, int capacity) {
+        return (int) Hashing.mix64((long) seed << 32 | (hash & 0xFFFFFFFFL)) & (capacity - 1);
+    }
+}
@@ -6,6 +6,14 @@ import hello.core.member.Member;
 public class RateDiscountPolicy implements DiscountPolicy {
 
     private int discountPercent = 10;
+
+    public RateDiscountPolicy() {
+    }
+
+    public RateDiscountPolicy(int discountPercent) {
+        this.discountPercent = discountPercent;
+    }
+
     @Override
     public int discount(Member member, int price) {
         if (member.getGrade() == Grade.VIP) {
@@ -0,0 +1,159 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 규칙 파일로 정하는 할인 정책. 한 줄에 규칙 하나이고, 위에서부터 처음 맞는 규칙 하나만 적용한다. 맞는 규칙이 없으면 할인하지 않는다.
+ * <pre>
+ * # 주석
+ * grade == VIP and price > 50000 -> 15%
+ * grade == VIP -> 1000
+ * </pre>
+ * 조건은 grade(==, !=) 와 price(==, !=, >, >=, <, <=) 비교를 and 로 잇는다. 할인은 n% 또는 고정 금액이다.
+ * 생성할 때 규칙을 람다로 조립해 두므로, 호출할 때는 규칙을 해석하지 않고 비교 몇 번으로 끝난다.
+ */
+public class RuleDiscountPolicy implements DiscountPolicy {
+
+    private static final Pattern RULE = Pattern.compile("(.+?)\\s*->\\s*(\\d+)\\s*(%?)");
+    private static final Pattern TERM = Pattern.compile("(grade|price)\\s*(==|!=|>=|<=|>|<)\\s*(\\w+)");
+
+    private final Rule compiled;
+
+    public RuleDiscountPolicy(String rules) {
+        this.compiled = compile(rules);
+    }
+
+    // 클래스패스의 규칙 파일을 읽는다 (예: src/main/resources/discount-rules.txt)
+    public static RuleDiscountPolicy fromResource(String name) {
+        try (InputStream in = RuleDiscountPolicy.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("discount rules not found: " + name);
+            }
+            return new RuleDiscountPolicy(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int discount(Member member, int price) {
+        return compiled.discount(member.getGrade(), price);
+    }
+
+    private interface Rule {
+        int discount(Grade grade, int price);
+    }
+
+    private interface Condition {
+        boolean test(Grade grade, int price);
+    }
+
+    private interface Amount {
+        int of(int price);
+    }
+
+    // 마지막 규칙부터 거꾸로 감싸서, 맞지 않으면 다음 규칙으로 넘어가는 하나의 람다 체인을 만든다
+    private static Rule compile(String rules) {
+        List<Condition> conditions = new ArrayList<>();
+        List<Amount> amounts = new ArrayList<>();
+        String[] lines = rules.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            Matcher rule = RULE.matcher(line);
+            if (!rule.matches()) {
+                throw new IllegalArgumentException("invalid discount rule at line " + (i + 1) + ": " + line);
+            }
+            conditions.add(condition(rule.group(1), i + 1));
+            amounts.add(amount(Integer.parseInt(rule.group(2)), !rule.group(3).isEmpty()));
+        }
+
+        Rule next = (grade, price) -> 0;
+        for (int i = conditions.size() - 1; i >= 0; i--) {
+            Condition condition = conditions.get(i);
+            Amount amount = amounts.get(i);
+            Rule otherwise = next;
+            next = (grade, price) -> condition.test(grade, price) ? amount.of(price) : otherwise.discount(grade, price);
+        }
+        return next;
+    }
+
+    private static Condition condition(String expression, int lineNumber) {
+        Condition combined = null;
+        for (String term : expression.split("\\s+and\\s+")) {
+            Matcher matcher = TERM.matcher(term.trim());
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("invalid condition at line " + lineNumber + ": " + term);
+            }
+            Condition condition = matcher.group(1).equals("grade")
+                    ? gradeCondition(matcher.group(2), matcher.group(3), lineNumber)
+                    : priceCondition(matcher.group(2), matcher.group(3), lineNumber);
+            if (combined == null) {
+                combined = condition;
+            } else {
+                Condition left = combined;
+                combined = (grade, price) -> left.test(grade, price) && condition.test(grade, price);
+            }
+        }
+        return combined;
+    }
+
+    private static Condition gradeCondition(String operator, String value, int lineNumber) {
+        Grade expected;
+        try {
+            expected = Grade.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown grade at line " + lineNumber + ": " + value);
+        }
+        switch (operator) {
+            case "==":
+                return (grade, price) -> grade == expected;
+            case "!=":
+                return (grade, price) -> grade != expected;
+            default:
+                throw new IllegalArgumentException("grade supports only == and != at line " + lineNumber + ": " + operator);
+        }
+    }
+
+    private static Condition priceCondition(String operator, String value, int lineNumber) {
+        int bound;
+        try {
+            bound = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid price at line " + lineNumber + ": " + value);
+        }
+        switch (operator) {
+            case "==":
+                return (grade, price) -> price == bound;
+            case "!=":
+                return (grade, price) -> price != bound;
+            case ">":
+                return (grade, price) -> price > bound;
+            case ">=":
+                return (grade, price) -> price >= bound;
+            case "<":
+                return (grade, price) -> price < bound;
+            default:
+                return (grade, price) -> price <= bound;
+        }
+    }
+
+    private static Amount amount(int value, boolean percent) {
+        if (percent) {
+            return price -> price * value / 100;
+        }
+        return price -> value;
+    }
+}
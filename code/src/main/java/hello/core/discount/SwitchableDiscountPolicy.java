@@ -0,0 +1,139 @@
+package hello.core.discount;
+
+import hello.core.common.Hashing;
+import hello.core.member.Member;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 컨텍스트를 다시 띄우지 않고 실행 중에 할인 정책을 바꿀 수 있게 감싸는 DiscountPolicy.
+ * OrderServiceImpl 은 이 객체를 final 로 들고 있고, 바꾸는 쪽은 swap 이나 startRollout -> promote / rollback 을 호출한다.
+ * (현재 정책, 후보 정책, 비율)은 불변 객체 하나로 묶어 통째로 교체하므로, 호출 한 번은 처음 읽은 정책들로 끝까지 계산한다.
+ * 호출마다 드는 비용은 acquire 읽기 한 번이다. 후보 정책은 회원 id 로 나눈 rolloutPercent% 의 회원에게만 적용되고, 같은 회원은 항상 같은 쪽으로 간다.
+ */
+public class SwitchableDiscountPolicy implements DiscountPolicy {
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(SwitchableDiscountPolicy.class, "state", State.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unused") // STATE 로만 접근한다
+    private State state;
+
+    public SwitchableDiscountPolicy(DiscountPolicy initial) {
+        STATE.setRelease(this, new State(initial, null, 0));
+    }
+
+    @Override
+    public int discount(Member member, int price) {
+        State state = (State) STATE.getAcquire(this);
+        if (state.candidate != null && bucket(member) < state.rolloutPercent) {
+            return state.candidate.discount(member, price);
+        }
+        return state.current.discount(member, price);
+    }
+
+    /**
+     * 모든 호출을 바로 새 정책으로 보낸다. 진행 중인 롤아웃은 취소된다.
+     * @return 이전 정책
+     */
+    public DiscountPolicy swap(DiscountPolicy policy) {
+        while (true) {
+            State old = (State) STATE.getAcquire(this);
+            if (STATE.compareAndSet(this, old, new State(policy, null, 0))) {
+                return old.current;
+            }
+        }
+    }
+
+    // candidate 를 rolloutPercent% 의 회원에게만 적용하기 시작한다
+    public void startRollout(DiscountPolicy candidate, int rolloutPercent) {
+        checkPercent(rolloutPercent);
+        while (true) {
+            State old = (State) STATE.getAcquire(this);
+            if (STATE.compareAndSet(this, old, new State(old.current, candidate, rolloutPercent))) {
+                return;
+            }
+        }
+    }
+
+    public void setRolloutPercent(int rolloutPercent) {
+        checkPercent(rolloutPercent);
+        while (true) {
+            State old = (State) STATE.getAcquire(this);
+            if (old.candidate == null) {
+                throw new IllegalStateException("no rollout in progress");
+            }
+            if (STATE.compareAndSet(this, old, new State(old.current, old.candidate, rolloutPercent))) {
+                return;
+            }
+        }
+    }
+
+    // 후보 정책을 모든 호출에 적용한다
+    public void promote() {
+        while (true) {
+            State old = (State) STATE.getAcquire(this);
+            if (old.candidate == null) {
+                throw new IllegalStateException("no rollout in progress");
+            }
+            if (STATE.compareAndSet(this, old, new State(old.candidate, null, 0))) {
+                return;
+            }
+        }
+    }
+
+    // 후보 정책을 버리고 현재 정책으로 되돌린다
+    public void rollback() {
+        while (true) {
+            State old = (State) STATE.getAcquire(this);
+            if (old.candidate == null || STATE.compareAndSet(this, old, new State(old.current, null, 0))) {
+                return;
+            }
+        }
+    }
+
+    public DiscountPolicy getCurrent() {
+        return ((State) STATE.getAcquire(this)).current;
+    }
+
+    // 롤아웃 중이 아니면 null
+    public DiscountPolicy getCandidate() {
+        return ((State) STATE.getAcquire(this)).candidate;
+    }
+
+    public int getRolloutPercent() {
+        return ((State) STATE.getAcquire(this)).rolloutPercent;
+    }
+
+    // 회원 id 를 0 ~ 99 로 고르게 나눈다
+    private static int bucket(Member member) {
+        long hash = Hashing.mix64(member.getId() == null ? 0 : member.getId());
+        return (int) ((hash >>> 1) % 100);
+    }
+
+    private static void checkPercent(int rolloutPercent) {
+        if (rolloutPercent < 0 || rolloutPercent > 100) {
+            throw new IllegalArgumentException("rolloutPercent must be between 0 and 100: " + rolloutPercent);
+        }
+    }
+
+    private static final class State {
+        final DiscountPolicy current;
+        final DiscountPolicy candidate;
+        final int rolloutPercent;
+
+        State(DiscountPolicy current, DiscountPolicy candidate, int rolloutPercent) {
+            this.current = current;
+            this.candidate = candidate;
+            this.rolloutPercent = rolloutPercent;
+        }
+    }
+}
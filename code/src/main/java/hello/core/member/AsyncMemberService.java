@@ -0,0 +1,9 @@
+package hello.core.member;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncMemberService {
+    CompletableFuture<Void> joinAsync(Member member); // 회원 가입
+
+    CompletableFuture<Member> findMemberAsync(Long memberId); // 회원 조회
+}
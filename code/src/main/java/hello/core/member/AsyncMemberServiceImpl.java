@@ -0,0 +1,26 @@
+package hello.core.member;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+public class AsyncMemberServiceImpl implements AsyncMemberService {
+
+    private final MemberService memberService;
+    private final Executor executor;
+
+    // 동기 MemberService 를 executor 위에서 실행한다
+    public AsyncMemberServiceImpl(MemberService memberService, Executor executor) {
+        this.memberService = memberService;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Void> joinAsync(Member member) {
+        return CompletableFuture.runAsync(() -> memberService.join(member), executor);
+    }
+
+    @Override
+    public CompletableFuture<Member> findMemberAsync(Long memberId) {
+        return CompletableFuture.supplyAsync(() -> memberService.findMember(memberId), executor);
+    }
+}
@@ -0,0 +1,138 @@
+package hello.core.member;
+
+import hello.core.common.Hashing;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 존재하지 않는 회원 id 조회를 원본 저장소까지 보내지 않도록 블룸 필터로 걸러내는 저장소.
+ * 필터가 "없다"고 하면 확실히 없는 회원이므로 바로 null 을 돌려준다. "있을 수도 있다"고 하면 원본을 조회한다.
+ * 블룸 필터는 삭제를 지원하지 않으므로 expectedInsertions 보다 많이 저장하면 오탐률이 올라간다.
+ * 생성할 때 delegate 에 이미 있는 회원(예: 다시 연 FileMemberRepository)을 모두 필터에 넣는다.
+ */
+public class BloomFilterMemberRepository implements MemberRepository {
+
+    private final MemberRepository delegate;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    private final LongAdder insertions = new LongAdder();
+    private final LongAdder definiteMisses = new LongAdder();  // 필터가 걸러낸 조회
+    private final LongAdder falsePositives = new LongAdder();  // 필터는 통과했지만 원본에 없던 조회
+
+    public BloomFilterMemberRepository(MemberRepository delegate, int expectedInsertions, double falsePositiveRate) {
+        this.delegate = delegate;
+        // m = -n ln(p) / (ln 2)^2, k = m / n * ln 2
+        long m = (long) Math.ceil(-Math.max(expectedInsertions, 1) * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / Math.max(expectedInsertions, 1) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (bitCount / 64));
+        // 필터에 없는 회원은 "확실히 없다"가 되므로, 이미 저장된 회원을 빠뜨리면 안 된다
+        delegate.forEach(member -> add(member.getId()));
+    }
+
+    // 필터에 먼저 넣어야 저장 직후의 조회가 필터에 걸러지지 않는다
+    @Override
+    public void save(Member member) {
+        add(member.getId());
+        delegate.save(member);
+    }
+
+    @Override
+    public void saveAll(Collection<Member> members) {
+        for (Member member : members) {
+            add(member.getId());
+        }
+        delegate.saveAll(members);
+    }
+
+    @Override
+    public void load(Member[] members) {
+        for (Member member : members) {
+            add(member.getId());
+        }
+        delegate.load(members);
+    }
+
+    @Override
+    public Member findById(Long memberId) {
+        if (memberId == null) {
+            return null;
+        }
+        return findById(memberId.longValue());
+    }
+
+    @Override
+    public void forEach(Consumer<? super Member> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public Member findById(long memberId) {
+        if (!mightContain(memberId)) {
+            definiteMisses.increment();
+            return null;
+        }
+        Member member = delegate.findById(memberId);
+        if (member == null) {
+            falsePositives.increment();
+        }
+        return member;
+    }
+
+    public boolean mightContain(long memberId) {
+        long h1 = Hashing.mix64(memberId);
+        long h2 = Hashing.mix64(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 원본에 없던 조회 중 필터가 걸러내지 못한 비율
+     */
+    public double observedFalsePositiveRate() {
+        long falsePositive = falsePositives.sum();
+        long negatives = falsePositive + definiteMisses.sum();
+        return negatives == 0 ? 0 : (double) falsePositive / negatives;
+    }
+
+    /**
+     * @return 지금까지 저장한 건수 기준의 이론적 오탐률 (1 - e^(-kn/m))^k
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions.sum() / bitCount), hashCount);
+    }
+
+    public long definiteMissCount() {
+        return definiteMisses.sum();
+    }
+
+    public long falsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    private void add(long memberId) {
+        long h1 = Hashing.mix64(memberId);
+        long h2 = Hashing.mix64(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word = bits.get(index);
+            while ((word & mask) == 0 && !bits.compareAndSet(index, word, word | mask)) {
+                word = bits.get(index);
+            }
+        }
+        insertions.increment();
+    }
+}
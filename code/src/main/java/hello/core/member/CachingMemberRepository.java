@@ -0,0 +1,345 @@
+package hello.core.member;
+
+import hello.core.common.Hashing;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 느린 MemberRepository 앞에 두는 읽기 캐시. 크기가 정해져 있고 W-TinyLFU 방식으로 교체한다.
+ * <ul>
+ *     <li>새 회원은 작은 window(LRU, 1%)에 먼저 들어간다</li>
+ *     <li>window 에서 밀려난 회원은 main(SLRU: probation 20% + protected 80%)의 교체 대상과 조회 빈도를 비교해서 더 자주 조회된 쪽만 남는다</li>
+ *     <li>조회 빈도는 4비트 count-min sketch 로 근사하고, 일정 횟수마다 절반으로 줄여 오래된 인기를 잊는다</li>
+ * </ul>
+ * 캐시 적중은 ConcurrentHashMap 조회 한 번으로 끝나고 락을 잡지 않는다. 조회 기록은 스레드별로 나눈 작은 버퍼에 넣어 두고,
+ * 버퍼가 차면 tryLock 에 성공한 스레드가 모아서 빈도와 LRU 순서에 반영한다. 락을 못 잡거나 버퍼가 가득 차면 기록은 버린다(정책은 근사여도 된다).
+ * save 하면 해당 회원을 캐시에서 지우고 다음 조회 때 다시 읽는다.
+ */
+public class CachingMemberRepository implements MemberRepository {
+
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    private final MemberRepository delegate;
+
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+
+    // 조회는 여기만 본다. 정책 구조(아래 세 구간)와 함께 evictionLock 안에서만 바뀐다
+    private final ConcurrentHashMap<Long, Node> data = new ConcurrentHashMap<>();
+
+    // access-order LinkedHashMap: 첫 번째 엔트리가 가장 오래전에 쓰인 엔트리. evictionLock 안에서만 쓴다
+    private final LinkedHashMap<Long, Node> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, Node> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, Node> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer[] readBuffers;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // save 로 캐시를 비울 때마다 증가한다. 원본 조회 도중 save 가 있었다면 조회한 값(이전 값일 수 있음)을 캐시에 넣지 않는다
+    private volatile long invalidations;
+
+    public CachingMemberRepository(MemberRepository delegate, int maximumSize) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("maximumSize must be at least 2: " + maximumSize);
+        }
+        this.delegate = delegate;
+        this.windowCapacity = Math.max(1, maximumSize / 100);
+        this.mainCapacity = maximumSize - windowCapacity;
+        this.protectedCapacity = (int) (mainCapacity * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4 - 1) << 1;
+        this.readBuffers = new ReadBuffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    @Override
+    public void save(Member member) {
+        delegate.save(member);
+        invalidate(member.getId());
+    }
+
+    @Override
+    public void load(Member[] members) {
+        delegate.load(members);
+        evictionLock.lock();
+        try {
+            for (Member member : members) {
+                invalidateLocked(member.getId());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public Member findById(Long memberId) {
+        Node node = data.get(memberId);
+        if (node != null) {
+            hits.increment();
+            recordRead(node);
+            return node.member;
+        }
+
+        misses.increment();
+        long generation = invalidations;
+        Member member = delegate.findById(memberId);
+        if (member != null) {
+            put(memberId, member, generation);
+        }
+        return member;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Member> action) {
+        delegate.forEach(action);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    private void recordRead(Node node) {
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().getId() & (readBuffers.length - 1)];
+        if (!buffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    // evictionLock 안에서 호출한다
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drainTo(this::onAccess);
+        }
+    }
+
+    private void onAccess(Node node) {
+        Long memberId = node.memberId;
+        sketch.increment(memberId);
+        if (data.get(memberId) != node) {
+            return; // 기록이 반영되기 전에 지워지거나 교체된 엔트리
+        }
+        if (window.get(memberId) != null || protectedSegment.get(memberId) != null) {
+            return;
+        }
+        if (probation.remove(memberId) != null) {
+            // probation 에서 다시 조회되면 protected 로 승격한다
+            protectedSegment.put(memberId, node);
+            if (protectedSegment.size() > protectedCapacity) {
+                Map.Entry<Long, Node> demoted = removeEldest(protectedSegment);
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+    }
+
+    private void put(Long memberId, Member member, long generation) {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            sketch.increment(memberId);
+            if (generation != invalidations || data.containsKey(memberId)) {
+                return;
+            }
+            Node node = new Node(memberId, member);
+            data.put(memberId, node);
+            window.put(memberId, node);
+            if (window.size() > windowCapacity) {
+                evict();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void evict() {
+        Map.Entry<Long, Node> candidate = removeEldest(window);
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+
+        // main 이 가득 찼으면 window 에서 밀려난 후보와 probation 의 교체 대상 중 더 자주 쓰인 쪽만 남긴다
+        Map.Entry<Long, Node> victim = probation.isEmpty() ? null : probation.entrySet().iterator().next();
+        if (victim != null && sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+            probation.remove(victim.getKey());
+            data.remove(victim.getKey(), victim.getValue());
+            probation.put(candidate.getKey(), candidate.getValue());
+        } else {
+            data.remove(candidate.getKey(), candidate.getValue());
+        }
+        evictions.increment();
+    }
+
+    private void invalidate(Long memberId) {
+        evictionLock.lock();
+        try {
+            invalidateLocked(memberId);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void invalidateLocked(Long memberId) {
+        invalidations++;
+        data.remove(memberId);
+        if (window.remove(memberId) == null && probation.remove(memberId) == null) {
+            protectedSegment.remove(memberId);
+        }
+    }
+
+    private static Map.Entry<Long, Node> removeEldest(LinkedHashMap<Long, Node> segment) {
+        Iterator<Map.Entry<Long, Node>> iterator = segment.entrySet().iterator();
+        Map.Entry<Long, Node> eldest = iterator.next();
+        Map.Entry<Long, Node> copy = Map.entry(eldest.getKey(), eldest.getValue());
+        iterator.remove();
+        return copy;
+    }
+
+    private static final class Node {
+        final Long memberId;
+        final Member member;
+
+        Node(Long memberId, Member member) {
+            this.memberId = memberId;
+            this.member = member;
+        }
+    }
+
+    /**
+     * 여러 스레드가 넣고 evictionLock 을 잡은 스레드 하나가 꺼내는 작은 링 버퍼. 가득 차거나 CAS 에 지면 넣지 않고 false 를 돌려준다.
+     */
+    private static final class ReadBuffer {
+        private final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        boolean offer(Node node) {
+            long tail = writeCounter.get();
+            if (tail - readCounter >= READ_BUFFER_SIZE || !writeCounter.compareAndSet(tail, tail + 1)) {
+                return false;
+            }
+            slots.lazySet((int) (tail & READ_BUFFER_MASK), node);
+            return true;
+        }
+
+        void drainTo(Consumer<Node> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            while (head < tail) {
+                int index = (int) (head & READ_BUFFER_MASK);
+                Node node = slots.get(index);
+                if (node == null) {
+                    break; // 자리를 잡았지만 아직 쓰지 않은 칸
+                }
+                slots.lazySet(index, null);
+                consumer.accept(node);
+                head++;
+            }
+            readCounter = head;
+        }
+    }
+
+    /**
+     * 4개의 행을 가진 4비트 count-min sketch. long 하나에 카운터 16개를 담는다.
+     */
+    static final class FrequencySketch {
+
+        private static final long[] SEEDS = {0x97cb3127L, 0xab7fd1e1L, 0x9e3779b97f4a7c15L, 0xc2b2ae3d27d4eb4fL};
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int size = Integer.highestOneBit(Math.max(maximumSize, 16) - 1) << 1;
+            this.table = new long[size];
+            this.tableMask = size - 1;
+            this.sampleSize = 10 * maximumSize;
+        }
+
+        void increment(long key) {
+            boolean added = false;
+            for (int row = 0; row < 4; row++) {
+                added |= incrementAt(indexOf(key, row), counterOf(key, row));
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(long key) {
+            int frequency = Integer.MAX_VALUE;
+            for (int row = 0; row < 4; row++) {
+                int counter = counterOf(key, row);
+                frequency = Math.min(frequency, (int) ((table[indexOf(key, row)] >>> (counter << 2)) & 0xfL));
+            }
+            return frequency;
+        }
+
+        private boolean incrementAt(int index, int counter) {
+            int shift = counter << 2;
+            long mask = 0xfL << shift;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << shift;
+                return true;
+            }
+            return false;
+        }
+
+        // 모든 카운터를 절반으로 줄여서 예전에 인기 있던 회원이 계속 자리를 차지하지 않게 한다
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            }
+            additions /= 2;
+        }
+
+        private int indexOf(long key, int row) {
+            long hash = (key + SEEDS[row]) * SEEDS[row];
+            hash += hash >>> 32;
+            return (int) hash & tableMask;
+        }
+
+        private int counterOf(long key, int row) {
+            return (int) ((Hashing.mix64(key) >>> (row << 2)) & 0xf);
+        }
+    }
+}
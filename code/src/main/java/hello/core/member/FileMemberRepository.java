@@ -0,0 +1,213 @@
+package hello.core.member;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * save 를 메모리 맵 파일 로그에 덧붙여 기록하는 저장소. 재시작해도 회원이 유지된다.
+ * 조회는 메모리 인덱스(ConcurrentHashMap)에서 처리하고, 디스크 동기화(fsync)는 syncBatchSize 건마다 묶어서 한다.
+ * 시작할 때 로그를 처음부터 스캔해 인덱스를 다시 만들고, CRC 가 맞지 않는 꼬리 레코드(기록 중 중단)는 버린다.
+ * 로그 파일 하나는 최대 2GB 까지 사용할 수 있다.
+ */
+public class FileMemberRepository implements MemberRepository, Closeable {
+
+    // 레코드 레이아웃: bodyLength(4) | crc32(4) | body[id(8) | grade(1) | nameLength(4) | name]
+    // bodyLength 가 0 이면 로그의 끝이다
+    private static final int HEADER_SIZE = 8;
+    private static final int INITIAL_MAP_SIZE = 1 << 20;
+    private static final Grade[] GRADES = Grade.values();
+
+    private final Map<Long, Member> index = new ConcurrentHashMap<>();
+    private final FileChannel channel;
+    private final int syncBatchSize;
+    private final CRC32 crc = new CRC32();
+
+    private MappedByteBuffer log;
+    private int position;
+    private int unsynced;
+
+    public FileMemberRepository(Path file) {
+        this(file, 64);
+    }
+
+    public FileMemberRepository(Path file, int syncBatchSize) {
+        this.syncBatchSize = syncBatchSize;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IllegalStateException("member log is larger than 2GB: " + file);
+            }
+            map((int) Math.max(fileSize, INITIAL_MAP_SIZE));
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void save(Member member) {
+        append(member);
+        if (++unsynced >= syncBatchSize) {
+            flush();
+        }
+    }
+
+    // 배치 전체를 기록한 뒤 한 번만 동기화한다
+    @Override
+    public synchronized void saveAll(Collection<Member> members) {
+        for (Member member : members) {
+            append(member);
+        }
+        unsynced += members.size();
+        flush();
+    }
+
+    @Override
+    public synchronized void load(Member[] members) {
+        for (Member member : members) {
+            append(member);
+        }
+        unsynced += members.length;
+        flush();
+    }
+
+    @Override
+    public Member findById(Long memberId) {
+        return index.get(memberId);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Member> action) {
+        index.values().forEach(action);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // 아직 동기화되지 않은 기록을 디스크에 내린다
+    public synchronized void flush() {
+        if (unsynced > 0) {
+            log.force();
+            unsynced = 0;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void append(Member member) {
+        byte[] name = member.getName() == null ? null : member.getName().getBytes(StandardCharsets.UTF_8);
+        int nameLength = name == null ? 0 : name.length;
+        // 2GB 근처에서는 int 로 더하면 넘치므로 long 으로 계산해서 매핑 한계를 넘는 기록은 거절한다
+        ensureCapacity((long) position + HEADER_SIZE + 8 + 1 + 4 + nameLength + 4);
+        int bodyLength = 8 + 1 + 4 + nameLength;
+
+        int body = position + HEADER_SIZE;
+        log.putLong(body, member.getId());
+        log.put(body + 8, member.getGrade() == null ? -1 : (byte) member.getGrade().ordinal());
+        log.putInt(body + 9, name == null ? -1 : name.length);
+        if (name != null) {
+            log.position(body + 13);
+            log.put(name);
+        }
+        log.putInt(position + 4, checksum(body, bodyLength));
+        // 길이를 마지막에 기록해야 중간에 멈춘 레코드가 완성된 레코드처럼 보이지 않는다
+        log.putInt(position, bodyLength);
+        position = body + bodyLength;
+
+        index.put(member.getId(), member);
+    }
+
+    private void recover() {
+        int offset = 0;
+        int limit = log.capacity();
+        while (offset + HEADER_SIZE <= limit) {
+            int bodyLength = log.getInt(offset);
+            int body = offset + HEADER_SIZE;
+            // 쓰레기 길이는 아주 클 수 있으므로 body + bodyLength 로 더하지 않는다
+            if (bodyLength < 13 || bodyLength > limit - body || log.getInt(offset + 4) != checksum(body, bodyLength)) {
+                break;
+            }
+
+            long id = log.getLong(body);
+            byte grade = log.get(body + 8);
+            int nameLength = log.getInt(body + 9);
+            String name = null;
+            if (nameLength >= 0) {
+                byte[] bytes = new byte[nameLength];
+                log.position(body + 13);
+                log.get(bytes);
+                name = new String(bytes, StandardCharsets.UTF_8);
+            }
+            index.put(id, new Member(id, name, grade < 0 ? null : GRADES[grade]));
+            offset = body + bodyLength;
+        }
+
+        // 찢어진 꼬리 레코드는 0 이 충분히 이어질 때까지 0 으로 덮어서 다음 기록이 그 위에 이어지도록 한다
+        position = offset;
+        int zeros = 0;
+        for (int i = offset; i < limit && zeros < 4096; i++) {
+            if (log.get(i) == 0) {
+                zeros++;
+            } else {
+                log.put(i, (byte) 0);
+                zeros = 0;
+            }
+        }
+        log.force();
+    }
+
+    private int checksum(int body, int bodyLength) {
+        crc.reset();
+        MappedByteBuffer slice = log;
+        slice.limit(body + bodyLength).position(body);
+        crc.update(slice);
+        slice.limit(slice.capacity());
+        return (int) crc.getValue();
+    }
+
+    private void ensureCapacity(long required) {
+        if (required <= log.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IllegalStateException("member log is full");
+        }
+        long newSize = log.capacity();
+        while (newSize < required) {
+            newSize <<= 1;
+        }
+        log.force();
+        map((int) Math.min(newSize, Integer.MAX_VALUE));
+    }
+
+    private void map(int size) {
+        try {
+            log = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            log.order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
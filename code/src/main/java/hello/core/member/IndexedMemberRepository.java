@@ -0,0 +1,237 @@
+package hello.core.member;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * 다른 MemberRepository 를 감싸서 등급별, 이름 접두사별 보조 인덱스를 유지하는 저장소.
+ * 생성할 때 delegate 에 이미 있는 회원으로 인덱스를 만든다.
+ * 저장된 Member 에 변경 리스너를 등록하므로 save 이후 setGrade, setName 으로 바뀐 값도 인덱스에 반영된다
+ * (delegate 가 그 객체를 그대로 들고 있을 때만. 복사본을 저장하는 저장소라면 저장된 값이 바뀌지 않으므로 인덱스도 따라가지 않는다).
+ * 인덱스에는 id 만 두고 회원 객체는 delegate 에서 찾는다. 조회는 전체를 훑지 않고 결과 개수에 비례하는 시간에 끝난다.
+ */
+public class IndexedMemberRepository implements MemberRepository, MemberChangeListener {
+
+    private static final Grade[] GRADES = Grade.values();
+
+    private final MemberRepository delegate;
+
+    // 등급 ordinal 로 바로 찾아가는 배열 인덱스
+    private final IdSet[] gradeIndex;
+    private final NavigableMap<String, IdSet> nameIndex = new ConcurrentSkipListMap<>();
+
+    public IndexedMemberRepository(MemberRepository delegate) {
+        this.delegate = delegate;
+        this.gradeIndex = new IdSet[GRADES.length];
+        for (int i = 0; i < GRADES.length; i++) {
+            gradeIndex[i] = new IdSet();
+        }
+        synchronized (this) {
+            delegate.forEach(member -> index(member, null));
+        }
+    }
+
+    // 이전 값은 인덱스에서 지워야 하므로 같은 id 의 저장은 인덱스 갱신까지 한 번에 한다
+    @Override
+    public synchronized void save(Member member) {
+        Member previous = delegate.findById(member.getId());
+        delegate.save(member);
+        index(member, previous);
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<Member> members) {
+        long[] memberIds = new long[members.size()];
+        int count = 0;
+        for (Member member : members) {
+            memberIds[count++] = member.getId();
+        }
+        Member[] previous = delegate.findAllById(memberIds);
+        delegate.saveAll(members);
+        // 같은 묶음 안에 같은 id 가 여러 번 있으면 바로 앞의 것이 이전 값이다
+        Map<Long, Member> inBatch = new HashMap<>();
+        int i = 0;
+        for (Member member : members) {
+            Member earlier = inBatch.put(member.getId(), member);
+            index(member, earlier != null ? earlier : previous[i]);
+            i++;
+        }
+    }
+
+    @Override
+    public synchronized void load(Member[] members) {
+        long[] memberIds = new long[members.length];
+        for (int i = 0; i < members.length; i++) {
+            memberIds[i] = members[i].getId();
+        }
+        Member[] previous = delegate.findAllById(memberIds);
+        delegate.load(members);
+        Map<Long, Member> inBatch = new HashMap<>();
+        for (int i = 0; i < members.length; i++) {
+            Member earlier = inBatch.put(members[i].getId(), members[i]);
+            index(members[i], earlier != null ? earlier : previous[i]);
+        }
+    }
+
+    @Override
+    public Member findById(Long memberId) {
+        return delegate.findById(memberId);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Member> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public Member findById(long memberId) {
+        return delegate.findById(memberId);
+    }
+
+    @Override
+    public Member[] findAllById(long[] memberIds) {
+        return delegate.findAllById(memberIds);
+    }
+
+    public List<Member> findByGrade(Grade grade) {
+        return resolve(gradeIndex[grade.ordinal()]);
+    }
+
+    public List<Member> findByNamePrefix(String prefix) {
+        String next = nextPrefix(prefix);
+        NavigableMap<String, IdSet> matches = next == null
+                ? nameIndex.tailMap(prefix, true)
+                : nameIndex.subMap(prefix, true, next, false);
+
+        List<long[]> sameNames = new ArrayList<>();
+        int count = 0;
+        for (IdSet sameName : matches.values()) {
+            long[] ids = sameName.toArray();
+            sameNames.add(ids);
+            count += ids.length;
+        }
+        long[] memberIds = new long[count];
+        int position = 0;
+        for (long[] ids : sameNames) {
+            System.arraycopy(ids, 0, memberIds, position, ids.length);
+            position += ids.length;
+        }
+        return resolve(memberIds);
+    }
+
+    // delegate 가 지금 들고 있는 객체의 변경만 반영한다. 교체된 이전 객체의 변경은 무시된다
+    @Override
+    public synchronized void nameChanged(Member member, String oldName) {
+        if (delegate.findById(member.getId()) == member) {
+            removeName(oldName, member.getId());
+            addName(member.getName(), member.getId());
+        }
+    }
+
+    @Override
+    public synchronized void gradeChanged(Member member, Grade oldGrade) {
+        if (delegate.findById(member.getId()) == member) {
+            if (oldGrade != null) {
+                gradeIndex[oldGrade.ordinal()].remove(member.getId());
+            }
+            if (member.getGrade() != null) {
+                gradeIndex[member.getGrade().ordinal()].add(member.getId());
+            }
+        }
+    }
+
+    // previous 는 저장 직전에 delegate 에 있던 같은 id 의 회원 (없으면 null)
+    private void index(Member member, Member previous) {
+        long memberId = member.getId();
+        if (previous != null) {
+            previous.removeChangeListener(this);
+            removeName(previous.getName(), memberId);
+            if (previous.getGrade() != null) {
+                gradeIndex[previous.getGrade().ordinal()].remove(memberId);
+            }
+        }
+
+        member.addChangeListener(this);
+        addName(member.getName(), memberId);
+        if (member.getGrade() != null) {
+            gradeIndex[member.getGrade().ordinal()].add(memberId);
+        }
+    }
+
+    private void addName(String name, long memberId) {
+        if (name != null) {
+            nameIndex.computeIfAbsent(name, key -> new IdSet()).add(memberId);
+        }
+    }
+
+    private void removeName(String name, long memberId) {
+        if (name == null) {
+            return;
+        }
+        IdSet ids = nameIndex.get(name);
+        if (ids != null && ids.remove(memberId) && ids.isEmpty()) {
+            nameIndex.remove(name, ids);
+        }
+    }
+
+    private List<Member> resolve(long[] memberIds) {
+        List<Member> result = new ArrayList<>(memberIds.length);
+        for (Member member : delegate.findAllById(memberIds)) {
+            if (member != null) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+
+    private List<Member> resolve(IdSet ids) {
+        return resolve(ids.toArray());
+    }
+
+    // prefix 로 시작하는 문자열들의 바로 다음 문자열 (없으면 null)
+    private static String nextPrefix(String prefix) {
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            char c = prefix.charAt(i);
+            if (c != Character.MAX_VALUE) {
+                return prefix.substring(0, i) + (char) (c + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * id 집합. 순회가 테이블 크기가 아니라 원소 수에 비례하도록 LinkedHashSet 을 쓴다.
+     * 쓰기는 저장소 락 안에서 하고, 조회는 집합의 모니터를 잠깐 잡고 배열로 복사해 간다.
+     */
+    private static final class IdSet {
+        private final LinkedHashSet<Long> ids = new LinkedHashSet<>();
+
+        synchronized void add(long memberId) {
+            ids.add(memberId);
+        }
+
+        synchronized boolean remove(long memberId) {
+            return ids.remove(memberId);
+        }
+
+        synchronized boolean isEmpty() {
+            return ids.isEmpty();
+        }
+
+        synchronized long[] toArray() {
+            long[] result = new long[ids.size()];
+            int i = 0;
+            for (Long id : ids) {
+                result[i++] = id;
+            }
+            return result;
+        }
+    }
+}
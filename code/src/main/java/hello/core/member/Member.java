@@ -1,9 +1,14 @@
 package hello.core.member;
 
+import java.util.Arrays;
+
 public class Member {
+    private static final MemberChangeListener[] NO_LISTENERS = new MemberChangeListener[0];
+
     private Long id;
     private String name;
     private Grade grade;
+    private volatile MemberChangeListener[] listeners = NO_LISTENERS;
 
     public Member(Long id, String name, Grade grade) {
         this.id = id;
@@ -24,7 +29,11 @@ public class Member {
     }
 
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name;
+        for (MemberChangeListener listener : listeners) {
+            listener.nameChanged(this, oldName);
+        }
     }
 
     public Grade getGrade() {
@@ -32,6 +41,32 @@ public class Member {
     }
 
     public void setGrade(Grade grade) {
+        Grade oldGrade = this.grade;
         this.grade = grade;
+        for (MemberChangeListener listener : listeners) {
+            listener.gradeChanged(this, oldGrade);
+        }
+    }
+
+    public synchronized void addChangeListener(MemberChangeListener listener) {
+        for (MemberChangeListener registered : listeners) {
+            if (registered == listener) {
+                return;
+            }
+        }
+        MemberChangeListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
+    }
+
+    public synchronized void removeChangeListener(MemberChangeListener listener) {
+        int count = 0;
+        MemberChangeListener[] newListeners = new MemberChangeListener[listeners.length];
+        for (MemberChangeListener registered : listeners) {
+            if (registered != listener) {
+                newListeners[count++] = registered;
+            }
+        }
+        listeners = count == 0 ? NO_LISTENERS : Arrays.copyOf(newListeners, count);
     }
 }
@@ -0,0 +1,55 @@
+package hello.core.member;
+
+public class MemberChangeEvent {
+
+    public enum Type {
+        SAVED,
+        NAME_CHANGED,
+        GRADE_CHANGED
+    }
+
+    private final long offset;
+    private final Type type;
+    private final Long memberId;
+    private final String name;
+    private final Grade grade;
+
+    public MemberChangeEvent(long offset, Type type, Long memberId, String name, Grade grade) {
+        this.offset = offset;
+        this.type = type;
+        this.memberId = memberId;
+        this.name = name;
+        this.grade = grade;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Grade getGrade() {
+        return grade;
+    }
+
+    @Override
+    public String toString() {
+        return "MemberChangeEvent{" +
+                "offset=" + offset +
+                ", type=" + type +
+                ", memberId=" + memberId +
+                ", name='" + name + '\'' +
+                ", grade=" + grade +
+                '}';
+    }
+}
@@ -0,0 +1,13 @@
+package hello.core.member;
+
+/**
+ * Member 의 이름, 등급이 바뀔 때 호출된다. 인덱스처럼 회원 값에 의존하는 구성 요소가 변경을 따라가는 데 쓴다.
+ */
+public interface MemberChangeListener {
+
+    default void nameChanged(Member member, String oldName) {
+    }
+
+    default void gradeChanged(Member member, Grade oldGrade) {
+    }
+}
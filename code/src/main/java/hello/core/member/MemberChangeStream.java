@@ -0,0 +1,98 @@
+package hello.core.member;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 회원 변경 이벤트를 offset 순서대로 담는 락 없는 링 버퍼.
+ * 쓰는 쪽은 offset 을 CAS 로 하나 받아 자기 칸에 이벤트를 기록할 뿐 구독자를 기다리지 않는다.
+ * 구독자가 너무 느려서 아직 읽지 않은 칸이 덮어써지면 그 구독은 끊긴(dropped) 상태가 되고, 남아 있는 가장 오래된 offset 부터 다시 구독해야 한다.
+ */
+public class MemberChangeStream {
+
+    private final AtomicReferenceArray<MemberChangeEvent> slots;
+    private final int mask;
+    private final AtomicLong nextOffset = new AtomicLong();
+
+    public MemberChangeStream(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public long publish(MemberChangeEvent.Type type, Member member) {
+        return publish(type, member.getId(), member.getName(), member.getGrade());
+    }
+
+    // 이벤트에는 호출한 시점의 값이 담긴다. 이후 Member 가 바뀌어도 이벤트는 그대로다
+    public long publish(MemberChangeEvent.Type type, Long memberId, String name, Grade grade) {
+        long offset = nextOffset.getAndIncrement();
+        slots.set((int) (offset & mask), new MemberChangeEvent(offset, type, memberId, name, grade));
+        return offset;
+    }
+
+    // 다음에 발행될 이벤트의 offset
+    public long latestOffset() {
+        return nextOffset.get();
+    }
+
+    // 아직 덮어써지지 않은 가장 오래된 offset
+    public long oldestOffset() {
+        return Math.max(0, nextOffset.get() - slots.length());
+    }
+
+    public Subscription subscribe(long fromOffset) {
+        return new Subscription(fromOffset);
+    }
+
+    public Subscription subscribeFromLatest() {
+        return new Subscription(latestOffset());
+    }
+
+    /**
+     * 한 구독자의 읽기 위치. 한 스레드에서만 사용한다.
+     */
+    public final class Subscription {
+
+        private long offset;
+        private boolean dropped;
+
+        private Subscription(long offset) {
+            this.offset = offset;
+        }
+
+        /**
+         * @return 다음 offset 부터 최대 maxEvents 개의 이벤트. 아직 기록 중인 칸을 만나면 거기서 멈춘다
+         */
+        public List<MemberChangeEvent> poll(int maxEvents) {
+            if (dropped) {
+                return Collections.emptyList();
+            }
+            List<MemberChangeEvent> events = new ArrayList<>();
+            while (events.size() < maxEvents && offset < nextOffset.get()) {
+                MemberChangeEvent event = slots.get((int) (offset & mask));
+                if (event == null || event.getOffset() < offset) {
+                    break; // offset 은 받았지만 아직 기록되지 않았다
+                }
+                if (event.getOffset() > offset || offset < oldestOffset()) {
+                    dropped = true; // 읽기 전에 덮어써졌다
+                    break;
+                }
+                events.add(event);
+                offset++;
+            }
+            return events;
+        }
+
+        public long offset() {
+            return offset;
+        }
+
+        public boolean isDropped() {
+            return dropped;
+        }
+    }
+}
@@ -1,8 +1,61 @@
 package hello.core.member;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
 public interface MemberRepository {
 
     void save(Member member);
 
     Member findById(Long memberId);
+
+    // 박싱 없이 조회할 수 있는 구현체는 이 메서드를 오버라이드한다
+    default Member findById(long memberId) {
+        return findById(Long.valueOf(memberId));
+    }
+
+    // 락, 해시 테이블 확장, 디스크 동기화를 한 번에 처리할 수 있는 구현체는 오버라이드한다
+    default void saveAll(Collection<Member> members) {
+        for (Member member : members) {
+            save(member);
+        }
+    }
+
+    /**
+     * 스냅샷 복원처럼 많은 회원을 한 번에 채운다. 같은 id 가 여러 번 있으면 뒤의 회원이 남는다.
+     * save 를 회원마다 거치지 않고, 구현체가 전체 크기만큼 공간을 한 번에 잡고 자기 자료구조에 직접 넣는다.
+     */
+    void load(Member[] members);
+
+    /**
+     * @return 조회된 회원 목록 (없는 id 는 건너뛴다)
+     */
+    default List<Member> findAllById(Collection<Long> memberIds) {
+        List<Member> result = new ArrayList<>(memberIds.size());
+        for (Long memberId : memberIds) {
+            Member member = findById(memberId);
+            if (member != null) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return memberIds 와 같은 순서의 회원 배열 (없는 id 자리는 null)
+     */
+    default Member[] findAllById(long[] memberIds) {
+        Member[] result = new Member[memberIds.length];
+        for (int i = 0; i < memberIds.length; i++) {
+            result[i] = findById(memberIds[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 저장된 모든 회원을 한 번씩 넘겨준다. 순서는 구현체마다 다르다.
+     */
+    void forEach(Consumer<? super Member> action);
 }
@@ -1,7 +1,16 @@
 package hello.core.member;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface MemberService {
     void join(Member member); // 회원 가입
 
     Member findMember(Long memberId); // 회원 조회
+
+    void joinAll(Collection<Member> members); // 회원 일괄 가입
+
+    List<Member> findMembers(Collection<Long> memberIds); // 회원 일괄 조회
+
+    Member[] findMembers(long[] memberIds); // 회원 일괄 조회 (id 순서대로, 없으면 null)
 }
@@ -1,5 +1,8 @@
 package hello.core.member;
 
+import java.util.Collection;
+import java.util.List;
+
 public class MemberServiceImpl implements MemberService {
 
     private final MemberRepository memberRepository;
@@ -19,6 +22,21 @@ public class MemberServiceImpl implements MemberService {
         return memberRepository.findById(memberId);
     }
 
+    @Override
+    public void joinAll(Collection<Member> members) {
+        memberRepository.saveAll(members);
+    }
+
+    @Override
+    public List<Member> findMembers(Collection<Long> memberIds) {
+        return memberRepository.findAllById(memberIds);
+    }
+
+    @Override
+    public Member[] findMembers(long[] memberIds) {
+        return memberRepository.findAllById(memberIds);
+    }
+
     // 테스트 용도
     public MemberRepository getMemberRepository() {
         return memberRepository;
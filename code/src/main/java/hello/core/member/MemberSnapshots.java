@@ -0,0 +1,234 @@
+package hello.core.member;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 저장소 내용을 다른 환경으로 옮기기 위한 바이너리 스냅샷 파일.
+ * <pre>
+ * header  : magic(4) | version(4)
+ * block*  : record* (record = length(1) | id(zigzag varlong) | grade(1, 0 = null) | nameRef(varint, 0 = null))
+ * footer  : 이름 수(4) | (길이(4) | UTF-8)* | 블록 수(4) | (offset(8) | length(4) | records(4))*
+ * trailer : footerOffset(8) | magic(4)
+ * </pre>
+ * 이름은 사전에 한 번만 기록하고 레코드에는 사전 번호만 남긴다.
+ * 내보내기는 저장소를 한 번 훑으면서 블록 단위로 바로 쓰고, 가져오기는 파일을 메모리 매핑한 뒤 블록별로 병렬 디코딩해서 load 로 한 번에 넣는다.
+ */
+public final class MemberSnapshots {
+
+    private static final int MAGIC = 0x4D534E50; // "MSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int TRAILER_SIZE = 12;
+    private static final int BLOCK_RECORDS = 4096;
+    private static final int MAX_RECORD_SIZE = 1 + 10 + 1 + 5;
+    private static final Grade[] GRADES = Grade.values();
+
+    private MemberSnapshots() {
+    }
+
+    /**
+     * @return 내보낸 회원 수
+     */
+    public static int export(MemberRepository repository, Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Exporter exporter = new Exporter(channel);
+            repository.forEach(exporter::add);
+            return exporter.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return 가져온 회원 수
+     */
+    public static int importInto(Path file, MemberRepository repository) {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IllegalStateException("member snapshot is larger than 2GB: " + file);
+            }
+            if (fileSize < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IllegalStateException("not a member snapshot: " + file);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int fileSize = mapped.capacity();
+        if (mapped.getInt(0) != MAGIC || mapped.getInt(fileSize - 4) != MAGIC) {
+            throw new IllegalStateException("not a member snapshot: " + file);
+        }
+        if (mapped.getInt(4) != VERSION) {
+            throw new IllegalStateException("unsupported member snapshot version: " + mapped.getInt(4));
+        }
+
+        ByteBuffer footer = mapped.duplicate();
+        footer.position((int) mapped.getLong(fileSize - TRAILER_SIZE));
+        String[] names = new String[footer.getInt()];
+        for (int i = 0; i < names.length; i++) {
+            byte[] encoded = new byte[footer.getInt()];
+            footer.get(encoded);
+            names[i] = new String(encoded, StandardCharsets.UTF_8);
+        }
+        int blockCount = footer.getInt();
+        long[] offsets = new long[blockCount];
+        int[] lengths = new int[blockCount];
+        // 블록마다 결과 배열에서 자기 구간의 시작 위치
+        int[] starts = new int[blockCount + 1];
+        for (int i = 0; i < blockCount; i++) {
+            offsets[i] = footer.getLong();
+            lengths[i] = footer.getInt();
+            starts[i + 1] = starts[i] + footer.getInt();
+        }
+
+        Member[] members = new Member[starts[blockCount]];
+        IntStream.range(0, blockCount).parallel().forEach(b -> {
+            ByteBuffer block = mapped.duplicate();
+            block.position((int) offsets[b]);
+            block.limit((int) offsets[b] + lengths[b]);
+            decodeBlock(block, members, starts[b], starts[b + 1], names);
+        });
+        repository.load(members);
+        return members.length;
+    }
+
+    private static void decodeBlock(ByteBuffer block, Member[] members, int from, int to, String[] names) {
+        for (int i = from; i < to; i++) {
+            int length = block.get() & 0xFF;
+            int next = block.position() + length;
+            long raw = readVarLong(block);
+            long id = (raw >>> 1) ^ -(raw & 1);
+            int grade = block.get();
+            int nameRef = (int) readVarLong(block);
+            members[i] = new Member(id, nameRef == 0 ? null : names[nameRef - 1], grade == 0 ? null : GRADES[grade - 1]);
+            // 뒤에 필드가 더 붙은 레코드도 건너뛸 수 있도록 길이만큼 이동한다
+            block.position(next);
+        }
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("corrupted member snapshot: varint too long");
+    }
+
+    private static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static final class Exporter {
+
+        private final FileChannel channel;
+        private final ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * MAX_RECORD_SIZE);
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<long[]> blocks = new ArrayList<>(); // {offset, length, records}
+
+        private long position;
+        private int blockRecords;
+        private int total;
+
+        Exporter(FileChannel channel) throws IOException {
+            this.channel = channel;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            write(header);
+        }
+
+        void add(Member member) {
+            int start = block.position();
+            block.put((byte) 0);
+            long id = member.getId();
+            writeVarLong(block, (id << 1) ^ (id >> 63));
+            block.put(member.getGrade() == null ? 0 : (byte) (member.getGrade().ordinal() + 1));
+            writeVarLong(block, member.getName() == null ? 0 : nameRef(member.getName()));
+            block.put(start, (byte) (block.position() - start - 1));
+
+            total++;
+            if (++blockRecords == BLOCK_RECORDS) {
+                flushBlock();
+            }
+        }
+
+        int finish() throws IOException {
+            flushBlock();
+
+            int footerSize = 8;
+            for (String name : names) {
+                footerSize += 4 + name.getBytes(StandardCharsets.UTF_8).length;
+            }
+            footerSize += blocks.size() * 16 + TRAILER_SIZE;
+
+            ByteBuffer footer = ByteBuffer.allocate(footerSize);
+            footer.putInt(names.size());
+            for (String name : names) {
+                byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+                footer.putInt(encoded.length).put(encoded);
+            }
+            footer.putInt(blocks.size());
+            for (long[] entry : blocks) {
+                footer.putLong(entry[0]).putInt((int) entry[1]).putInt((int) entry[2]);
+            }
+            footer.putLong(position).putInt(MAGIC).flip();
+            write(footer);
+            return total;
+        }
+
+        private int nameRef(String name) {
+            Integer ref = dictionary.get(name);
+            if (ref == null) {
+                names.add(name);
+                ref = names.size();
+                dictionary.put(name, ref);
+            }
+            return ref;
+        }
+
+        private void flushBlock() {
+            if (blockRecords == 0) {
+                return;
+            }
+            block.flip();
+            int length = block.remaining();
+            try {
+                blocks.add(new long[]{position, length, blockRecords});
+                write(block);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            block.clear();
+            blockRecords = 0;
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer);
+            }
+        }
+    }
+}
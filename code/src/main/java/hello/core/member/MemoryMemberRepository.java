@@ -1,19 +1,103 @@
 package hello.core.member;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class MemoryMemberRepository implements MemberRepository {
 
-    private static Map<Long, Member> store = new HashMap<>();
+    private static Map<Long, Member> store = new ConcurrentHashMap<>(); // 동시성 문제 방지: 조회는 락 없이, 저장은 버킷 단위 락
 
     @Override
     public void save(Member member) {
         store.put(member.getId(), member);
     }
 
+    // putAll 은 배치 크기만큼 테이블을 한 번에 키워 두므로, 한 건씩 넣을 때처럼 여러 번 리사이즈하지 않는다
+    @Override
+    public void saveAll(Collection<Member> members) {
+        store.putAll(new BatchView(members));
+    }
+
+    @Override
+    public void load(Member[] members) {
+        store.putAll(new BatchView(Arrays.asList(members)));
+    }
+
     @Override
     public Member findById(Long memberId) {
         return store.get(memberId);
     }
+
+    // 조회는 락이 없으므로 기본 구현의 단건 호출 경로만 걷어내고 저장소를 바로 읽는다
+    @Override
+    public List<Member> findAllById(Collection<Long> memberIds) {
+        List<Member> result = new ArrayList<>(memberIds.size());
+        for (Long memberId : memberIds) {
+            Member member = store.get(memberId);
+            if (member != null) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Member[] findAllById(long[] memberIds) {
+        Member[] result = new Member[memberIds.length];
+        for (int i = 0; i < memberIds.length; i++) {
+            result[i] = store.get(memberIds[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Member> action) {
+        store.values().forEach(action);
+    }
+
+    // 회원 목록을 id -> 회원 Map 으로 보여주기만 하는 뷰. putAll 에 크기를 알려주려고 쓰며 복사하지 않는다
+    private static final class BatchView extends AbstractMap<Long, Member> {
+
+        private final Collection<Member> members;
+
+        BatchView(Collection<Member> members) {
+            this.members = members;
+        }
+
+        @Override
+        public Set<Entry<Long, Member>> entrySet() {
+            return new AbstractSet<Entry<Long, Member>>() {
+                @Override
+                public Iterator<Entry<Long, Member>> iterator() {
+                    Iterator<Member> iterator = members.iterator();
+                    return new Iterator<Entry<Long, Member>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Long, Member> next() {
+                            Member member = iterator.next();
+                            return new SimpleImmutableEntry<>(member.getId(), member);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return members.size();
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,416 @@
+package hello.core.member;
+
+import hello.core.common.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * 회원 데이터를 힙 밖(direct ByteBuffer)에 저장하는 저장소.
+ * 회원 1명은 16바이트 레코드(id, 이름 참조, 등급 1바이트)로 저장되고, 이름은 중복 제거된 문자열 영역에 한 번만 저장된다.
+ * id 인덱스도 힙 밖에 있으므로 회원 수가 늘어나도 GC 가 살펴볼 객체 수는 늘지 않는다.
+ * findById 는 호출할 때마다 새 Member 를 만들어 돌려주므로, 조회한 회원을 수정했다면 다시 save 해야 반영된다.
+ */
+public class OffHeapMemberRepository implements MemberRepository {
+
+    // 레코드 레이아웃: id(8) | nameRef(4) | grade(1) | padding(3)
+    private static final int RECORD_SIZE = 16;
+    private static final int NAME_OFFSET = 8;
+    private static final int GRADE_OFFSET = 12;
+    private static final int NULL_REF = -1;
+
+    // 인덱스 엔트리 레이아웃: id(8) | recordNo + 1(4) | padding(4), 0 이면 빈 슬롯
+    private static final int INDEX_ENTRY_SIZE = 16;
+
+    private static final Grade[] GRADES = Grade.values();
+
+    private final StampedLock lock = new StampedLock();
+    private final OffHeapBuffer records = new OffHeapBuffer(1 << 22);
+    private final NameArena names = new NameArena();
+
+    private OffHeapBuffer index;
+    private long indexCapacity;
+    private int size;
+
+    public OffHeapMemberRepository() {
+        this(1024);
+    }
+
+    public OffHeapMemberRepository(int expectedSize) {
+        indexCapacity = tableSizeFor(expectedSize * 2L);
+        index = OffHeapBuffer.ofSize(indexCapacity * INDEX_ENTRY_SIZE);
+    }
+
+    @Override
+    public void save(Member member) {
+        long stamp = lock.writeLock();
+        try {
+            ensureIndexCapacity(size + 1L);
+            put(member);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Member> members) {
+        long stamp = lock.writeLock();
+        try {
+            ensureIndexCapacity(size + (long) members.size());
+            for (Member member : members) {
+                put(member);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void load(Member[] members) {
+        long stamp = lock.writeLock();
+        try {
+            ensureIndexCapacity(size + (long) members.length);
+            for (Member member : members) {
+                put(member);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Member findById(Long memberId) {
+        return memberId == null ? null : findById(memberId.longValue());
+    }
+
+    @Override
+    public Member findById(long memberId) {
+        long stamp = lock.readLock();
+        try {
+            return find(memberId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Member[] findAllById(long[] memberIds) {
+        Member[] result = new Member[memberIds.length];
+        long stamp = lock.readLock();
+        try {
+            for (int i = 0; i < memberIds.length; i++) {
+                result[i] = find(memberIds[i]);
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // 레코드는 추가만 되고 자리가 바뀌지 않으므로 조금씩 끊어서 읽는다 (전체를 힙에 올리지 않는다)
+    @Override
+    public void forEach(Consumer<? super Member> action) {
+        Member[] chunk = new Member[1024];
+        int next = 0;
+        while (true) {
+            int count = 0;
+            long stamp = lock.readLock();
+            try {
+                while (count < chunk.length && next < size) {
+                    chunk[count++] = materialize((long) next++ * RECORD_SIZE);
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            if (count == 0) {
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                action.accept(chunk[i]);
+            }
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // 중복 제거 후 실제로 저장된 서로 다른 이름 수
+    public int distinctNames() {
+        long stamp = lock.readLock();
+        try {
+            return names.count;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void put(Member member) {
+        long memberId = member.getId();
+        long entry = probe(index, indexCapacity, memberId);
+        int recordNo = index.getInt(entry + 8) - 1;
+        if (recordNo < 0) {
+            recordNo = size++;
+            records.ensureCapacity((long) size * RECORD_SIZE);
+            index.putLong(entry, memberId);
+            index.putInt(entry + 8, recordNo + 1);
+        }
+
+        long record = (long) recordNo * RECORD_SIZE;
+        records.putLong(record, memberId);
+        records.putInt(record + NAME_OFFSET, member.getName() == null ? NULL_REF : names.intern(member.getName()));
+        records.put(record + GRADE_OFFSET, member.getGrade() == null ? -1 : (byte) member.getGrade().ordinal());
+    }
+
+    private Member find(long memberId) {
+        int recordNo = index.getInt(probe(index, indexCapacity, memberId) + 8) - 1;
+        if (recordNo < 0) {
+            return null;
+        }
+        return materialize((long) recordNo * RECORD_SIZE);
+    }
+
+    private void ensureIndexCapacity(long expectedSize) {
+        if (expectedSize * 2 > indexCapacity) {
+            resizeIndex(tableSizeFor(expectedSize * 2));
+        }
+    }
+
+    private Member materialize(long record) {
+        long id = records.getLong(record);
+        int nameRef = records.getInt(record + NAME_OFFSET);
+        byte grade = records.get(record + GRADE_OFFSET);
+        return new Member(id, nameRef == NULL_REF ? null : names.read(nameRef), grade < 0 ? null : GRADES[grade]);
+    }
+
+    // memberId 가 있는 엔트리 또는 들어갈 빈 엔트리의 위치
+    private static long probe(OffHeapBuffer table, long capacity, long memberId) {
+        long mask = capacity - 1;
+        long slot = Hashing.mix64(memberId) & mask;
+        while (true) {
+            long entry = slot * INDEX_ENTRY_SIZE;
+            if (table.getInt(entry + 8) == 0 || table.getLong(entry) == memberId) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resizeIndex(long newCapacity) {
+        OffHeapBuffer newIndex = OffHeapBuffer.ofSize(newCapacity * INDEX_ENTRY_SIZE);
+        for (long slot = 0; slot < indexCapacity; slot++) {
+            long entry = slot * INDEX_ENTRY_SIZE;
+            int value = index.getInt(entry + 8);
+            if (value != 0) {
+                long key = index.getLong(entry);
+                long newEntry = probe(newIndex, newCapacity, key);
+                newIndex.putLong(newEntry, key);
+                newIndex.putInt(newEntry + 8, value);
+            }
+        }
+        index = newIndex;
+        indexCapacity = newCapacity;
+    }
+
+    private static long tableSizeFor(long capacity) {
+        long n = Long.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        return Math.max(n, 16);
+    }
+
+    /**
+     * 이름을 길이(4) + UTF-8 바이트로 한 번만 저장하고, 같은 이름은 같은 참조(오프셋)를 돌려준다.
+     * 중복 확인용 해시 테이블도 힙 밖에 있다.
+     */
+    private static final class NameArena {
+
+        private static final int CHUNK_SIZE = 1 << 20;
+
+        private final OffHeapBuffer bytes = new OffHeapBuffer(CHUNK_SIZE);
+        private long used;
+
+        private OffHeapBuffer table; // slot -> nameRef + 1
+        private long tableCapacity = 1024;
+        private int count;
+
+        NameArena() {
+            table = OffHeapBuffer.ofSize(tableCapacity * 4);
+        }
+
+        int intern(String name) {
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            long slot = find(table, tableCapacity, encoded, hash(encoded));
+            int found = table.getInt(slot * 4);
+            if (found != 0) {
+                return found - 1;
+            }
+
+            int ref = append(encoded);
+            table.putInt(slot * 4, ref + 1);
+            if (++count * 2L > tableCapacity) {
+                rehash(tableCapacity << 1);
+            }
+            return ref;
+        }
+
+        String read(int ref) {
+            int length = bytes.getInt(ref);
+            byte[] encoded = new byte[length];
+            bytes.get(ref + 4, encoded);
+            return new String(encoded, StandardCharsets.UTF_8);
+        }
+
+        private int append(byte[] encoded) {
+            int recordSize = 4 + encoded.length;
+            if (recordSize > CHUNK_SIZE) {
+                throw new IllegalArgumentException("name is too long: " + encoded.length + " bytes");
+            }
+            // 이름 하나가 두 청크에 걸치지 않도록 남은 공간이 부족하면 다음 청크로 넘어간다
+            long chunkEnd = (used / CHUNK_SIZE + 1) * CHUNK_SIZE;
+            if (used + recordSize > chunkEnd) {
+                used = chunkEnd;
+            }
+            if (used + recordSize > Integer.MAX_VALUE) {
+                throw new IllegalStateException("name arena is full");
+            }
+            bytes.ensureCapacity(used + recordSize);
+            int ref = (int) used;
+            bytes.putInt(ref, encoded.length);
+            bytes.put(ref + 4, encoded);
+            used += recordSize;
+            return ref;
+        }
+
+        private long find(OffHeapBuffer table, long capacity, byte[] encoded, int hash) {
+            long mask = capacity - 1;
+            long slot = hash & mask;
+            while (true) {
+                int value = table.getInt(slot * 4);
+                if (value == 0 || sameBytes(value - 1, encoded)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private boolean sameBytes(int ref, byte[] encoded) {
+            if (bytes.getInt(ref) != encoded.length) {
+                return false;
+            }
+            for (int i = 0; i < encoded.length; i++) {
+                if (bytes.get(ref + 4 + i) != encoded[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash(long newCapacity) {
+            OffHeapBuffer newTable = OffHeapBuffer.ofSize(newCapacity * 4);
+            long mask = newCapacity - 1;
+            for (long slot = 0; slot < tableCapacity; slot++) {
+                int value = table.getInt(slot * 4);
+                if (value != 0) {
+                    byte[] encoded = new byte[bytes.getInt(value - 1)];
+                    bytes.get(value - 1 + 4, encoded);
+                    long newSlot = hash(encoded) & mask;
+                    while (newTable.getInt(newSlot * 4) != 0) {
+                        newSlot = (newSlot + 1) & mask;
+                    }
+                    newTable.putInt(newSlot * 4, value);
+                }
+            }
+            table = newTable;
+            tableCapacity = newCapacity;
+        }
+
+        private static int hash(byte[] encoded) {
+            int h = 0x811c9dc5;
+            for (byte b : encoded) {
+                h = (h ^ b) * 0x01000193;
+            }
+            return h & Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 여러 개의 direct ByteBuffer 세그먼트를 long 오프셋으로 접근할 수 있게 묶은 버퍼.
+     * ByteBuffer 하나는 2GB 를 넘을 수 없으므로 큰 테이블은 세그먼트로 나눈다.
+     */
+    private static final class OffHeapBuffer {
+
+        private static final int MAX_SEGMENT_SIZE = 1 << 26;
+
+        private final int segmentShift;
+        private final long segmentMask;
+        private final List<ByteBuffer> segments = new ArrayList<>();
+
+        OffHeapBuffer(int segmentSize) {
+            this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+            this.segmentMask = segmentSize - 1;
+        }
+
+        // 크기가 정해진 테이블용: 2의 제곱 크기를 미리 모두 할당한다
+        static OffHeapBuffer ofSize(long size) {
+            OffHeapBuffer buffer = new OffHeapBuffer((int) Math.min(size, MAX_SEGMENT_SIZE));
+            buffer.ensureCapacity(size);
+            return buffer;
+        }
+
+        void ensureCapacity(long size) {
+            while (((long) segments.size() << segmentShift) < size) {
+                segments.add(ByteBuffer.allocateDirect((int) segmentMask + 1).order(ByteOrder.nativeOrder()));
+            }
+        }
+
+        long getLong(long offset) {
+            return segment(offset).getLong((int) (offset & segmentMask));
+        }
+
+        void putLong(long offset, long value) {
+            segment(offset).putLong((int) (offset & segmentMask), value);
+        }
+
+        int getInt(long offset) {
+            return segment(offset).getInt((int) (offset & segmentMask));
+        }
+
+        void putInt(long offset, int value) {
+            segment(offset).putInt((int) (offset & segmentMask), value);
+        }
+
+        byte get(long offset) {
+            return segment(offset).get((int) (offset & segmentMask));
+        }
+
+        void put(long offset, byte value) {
+            segment(offset).put((int) (offset & segmentMask), value);
+        }
+
+        void get(long offset, byte[] dst) {
+            ByteBuffer view = segment(offset).duplicate();
+            view.position((int) (offset & segmentMask));
+            view.get(dst);
+        }
+
+        void put(long offset, byte[] src) {
+            ByteBuffer view = segment(offset).duplicate();
+            view.position((int) (offset & segmentMask));
+            view.put(src);
+        }
+
+        private ByteBuffer segment(long offset) {
+            return segments.get((int) (offset >>> segmentShift));
+        }
+    }
+}
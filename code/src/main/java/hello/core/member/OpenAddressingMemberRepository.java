@@ -0,0 +1,241 @@
+package hello.core.member;
+
+import hello.core.common.Hashing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * long 키를 그대로 저장하는 오픈 어드레싱(선형 탐사) 해시 테이블 기반 저장소.
+ * HashMap.Node, Long 객체를 만들지 않으므로 회원 수가 많을수록 힙 사용량이 줄어든다.
+ * 조회는 낙관적 읽기로 락 없이 수행하고, 저장은 쓰기 락으로 직렬화한다.
+ */
+public class OpenAddressingMemberRepository implements MemberRepository {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final StampedLock lock = new StampedLock();
+
+    private long[] keys;
+    private Member[] values; // null 이면 빈 슬롯
+    private int size;
+
+    public OpenAddressingMemberRepository() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OpenAddressingMemberRepository(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.min(MAXIMUM_CAPACITY, (long) (expectedSize / LOAD_FACTOR) + 1));
+        keys = new long[capacity];
+        values = new Member[capacity];
+    }
+
+    @Override
+    public void save(Member member) {
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity(size + 1L);
+            put(member);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // 락은 한 번만 잡고, 테이블은 배치 크기만큼 미리 늘려둔다
+    @Override
+    public void saveAll(Collection<Member> members) {
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity((long) size + members.size());
+            for (Member member : members) {
+                put(member);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // 테이블을 전체 크기로 한 번만 늘리고 리사이즈 없이 채운다
+    @Override
+    public void load(Member[] members) {
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity((long) size + members.length);
+            for (Member member : members) {
+                put(member);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Member findById(Long memberId) {
+        return memberId == null ? null : findById(memberId.longValue());
+    }
+
+    @Override
+    public Member findById(long memberId) {
+        long stamp = lock.tryOptimisticRead();
+        Member member = find(keys, values, memberId);
+        if (lock.validate(stamp)) {
+            return member;
+        }
+
+        // 조회 도중 저장(리사이즈)이 일어났으면 읽기 락을 잡고 다시 조회한다
+        stamp = lock.readLock();
+        try {
+            return find(keys, values, memberId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Member[] findAllById(long[] memberIds) {
+        Member[] result = new Member[memberIds.length];
+        long stamp = lock.tryOptimisticRead();
+        findAll(memberIds, result);
+        if (lock.validate(stamp)) {
+            return result;
+        }
+
+        stamp = lock.readLock();
+        try {
+            findAll(memberIds, result);
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Member> findAllById(Collection<Long> memberIds) {
+        long[] ids = new long[memberIds.size()];
+        int i = 0;
+        for (Long memberId : memberIds) {
+            ids[i++] = memberId;
+        }
+
+        List<Member> result = new ArrayList<>(ids.length);
+        for (Member member : findAllById(ids)) {
+            if (member != null) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+
+    // 락을 잡은 채로 action 을 부르면 action 안에서 save 할 때 교착되므로 복사한 뒤에 넘겨준다
+    @Override
+    public void forEach(Consumer<? super Member> action) {
+        Member[] copy;
+        int count = 0;
+        long stamp = lock.readLock();
+        try {
+            copy = new Member[size];
+            for (Member member : values) {
+                if (member != null) {
+                    copy[count++] = member;
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        for (int i = 0; i < count; i++) {
+            action.accept(copy[i]);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void findAll(long[] memberIds, Member[] result) {
+        long[] keys = this.keys;
+        Member[] values = this.values;
+        for (int i = 0; i < memberIds.length; i++) {
+            result[i] = find(keys, values, memberIds[i]);
+        }
+    }
+
+    private static Member find(long[] keys, Member[] values, long memberId) {
+        // 낙관적 읽기 중에는 배열이 교체될 수 있으므로 길이가 다르면 바로 포기한다
+        if (keys.length != values.length) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        // 연속된 id 가 한쪽에 몰리지 않도록 비트를 섞어서 슬롯을 고른다
+        int slot = (int) Hashing.mix64(memberId) & mask;
+        for (int probe = 0; probe < keys.length; probe++) {
+            Member member = values[slot];
+            if (member == null) {
+                return null;
+            }
+            if (keys[slot] == memberId) {
+                return member;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int slotOf(long[] keys, Member[] values, long memberId) {
+        int mask = keys.length - 1;
+        int slot = (int) Hashing.mix64(memberId) & mask;
+        while (values[slot] != null && keys[slot] != memberId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void put(Member member) {
+        long memberId = member.getId();
+        int slot = slotOf(keys, values, memberId);
+        if (values[slot] == null) {
+            keys[slot] = memberId;
+            size++;
+        }
+        values[slot] = member;
+    }
+
+    private void ensureCapacity(long expectedSize) {
+        if (expectedSize <= keys.length * LOAD_FACTOR) {
+            return;
+        }
+        // 최대 크기에서는 더 늘릴 수 없으므로, 같은 크기로 매번 다시 옮기는 대신 실패시킨다
+        if (expectedSize > MAXIMUM_CAPACITY * LOAD_FACTOR) {
+            throw new IllegalStateException("member table is full: " + size + " members");
+        }
+        resize(tableSizeFor((int) Math.min(MAXIMUM_CAPACITY, (long) (expectedSize / LOAD_FACTOR) + 1)));
+    }
+
+    private void resize(int newCapacity) {
+        long[] newKeys = new long[newCapacity];
+        Member[] newValues = new Member[newCapacity];
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                int slot = slotOf(newKeys, newValues, keys[i]);
+                newKeys[slot] = keys[i];
+                newValues[slot] = values[i];
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(capacity, DEFAULT_CAPACITY) - 1) << 1;
+        return Math.max(n, DEFAULT_CAPACITY);
+    }
+}
@@ -0,0 +1,160 @@
+package hello.core.member;
+
+import hello.core.common.Hashing;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 다른 MemberRepository 를 감싸서 save 와 저장된 Member 의 setName, setGrade 를 변경 스트림에 발행하는 저장소.
+ * 다른 캐시나 검색 인덱스는 저장소를 주기적으로 훑는 대신 스트림을 offset 부터 구독하면 된다.
+ * 같은 id 의 저장과 발행은 id 별 락(stripe) 안에서 함께 일어나므로, 한 id 의 이벤트 순서는 저장소에 반영된 순서와 같다.
+ * 이벤트에는 발행할 때의 이름과 등급을 복사해 담는다.
+ */
+public class PublishingMemberRepository implements MemberRepository, MemberChangeListener {
+
+    private static final int STRIPES = 64;
+
+    private final MemberRepository delegate;
+    private final MemberChangeStream stream;
+    private final Map<Long, Member> tracked = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public PublishingMemberRepository(MemberRepository delegate, MemberChangeStream stream) {
+        this.delegate = delegate;
+        this.stream = stream;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void save(Member member) {
+        ReentrantLock lock = lockFor(member.getId());
+        lock.lock();
+        try {
+            delegate.save(member);
+            track(member);
+            publish(MemberChangeEvent.Type.SAVED, member);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Member> members) {
+        // 교착을 피하려고 필요한 stripe 를 번호 순서대로 잡는다
+        boolean[] needed = new boolean[STRIPES];
+        for (Member member : members) {
+            needed[stripe(member.getId())] = true;
+        }
+        int locked = 0;
+        try {
+            for (; locked < STRIPES; locked++) {
+                if (needed[locked]) {
+                    locks[locked].lock();
+                }
+            }
+            delegate.saveAll(members);
+            for (Member member : members) {
+                track(member);
+                publish(MemberChangeEvent.Type.SAVED, member);
+            }
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                if (needed[i]) {
+                    locks[i].unlock();
+                }
+            }
+        }
+    }
+
+    // 구독자가 같은 상태를 따라가도록 불러온 회원도 SAVED 로 발행한다
+    @Override
+    public void load(Member[] members) {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            delegate.load(members);
+            for (Member member : members) {
+                track(member);
+                publish(MemberChangeEvent.Type.SAVED, member);
+            }
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    @Override
+    public Member findById(Long memberId) {
+        return delegate.findById(memberId);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Member> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public Member findById(long memberId) {
+        return delegate.findById(memberId);
+    }
+
+    @Override
+    public Member[] findAllById(long[] memberIds) {
+        return delegate.findAllById(memberIds);
+    }
+
+    @Override
+    public void nameChanged(Member member, String oldName) {
+        publishChange(MemberChangeEvent.Type.NAME_CHANGED, member);
+    }
+
+    @Override
+    public void gradeChanged(Member member, Grade oldGrade) {
+        publishChange(MemberChangeEvent.Type.GRADE_CHANGED, member);
+    }
+
+    public MemberChangeStream stream() {
+        return stream;
+    }
+
+    private void publishChange(MemberChangeEvent.Type type, Member member) {
+        ReentrantLock lock = lockFor(member.getId());
+        lock.lock();
+        try {
+            if (tracked.get(member.getId()) == member) {
+                publish(type, member);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 락 안에서 읽은 값을 복사해 발행한다. 같은 회원의 변경이 겹치면 뒤의 이벤트가 최신 값을 담는다
+    private void publish(MemberChangeEvent.Type type, Member member) {
+        stream.publish(type, member.getId(), member.getName(), member.getGrade());
+    }
+
+    private ReentrantLock lockFor(Long memberId) {
+        return locks[stripe(memberId)];
+    }
+
+    private static int stripe(Long memberId) {
+        return (int) Hashing.mix64(memberId) & (STRIPES - 1);
+    }
+
+    private void track(Member member) {
+        Member previous = tracked.put(member.getId(), member);
+        if (previous != null && previous != member) {
+            previous.removeChangeListener(this);
+        }
+        member.addChangeListener(this);
+    }
+}
@@ -0,0 +1,266 @@
+package hello.core.member;
+
+import hello.core.common.Hashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 회원을 여러 샤드(각자 크기가 따로 늘어나는 ConcurrentHashMap)에 나눠 저장하는 저장소.
+ * 샤드는 일관된 해싱(가상 노드를 둔 해시 링)으로 고르므로, 샤드 수를 바꿔도 일부 회원만 다른 샤드로 옮겨진다.
+ * 샤드 수 변경(resize) 중에도 저장, 조회는 계속할 수 있다.
+ */
+public class ShardedMemberRepository implements MemberRepository {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private final int initialShardCapacity;
+    private volatile Topology topology;
+
+    public ShardedMemberRepository(int shardCount) {
+        this(shardCount, 16);
+    }
+
+    public ShardedMemberRepository(int shardCount, int initialShardCapacity) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.initialShardCapacity = initialShardCapacity;
+        Shard[] shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, initialShardCapacity);
+        }
+        this.topology = new Topology(shards, null);
+    }
+
+    @Override
+    public void save(Member member) {
+        Long memberId = member.getId();
+        while (true) {
+            Topology current = topology;
+            Shard owner = current.ownerOf(memberId);
+            owner.put(memberId, member);
+
+            // 재배치 중이면 예전 샤드에 남아 있는 이전 값을 지운다
+            if (current.previous != null) {
+                Shard previousOwner = current.previous.ownerOf(memberId);
+                if (previousOwner != owner) {
+                    previousOwner.store.remove(memberId);
+                }
+            }
+            if (topology == current) {
+                return;
+            }
+
+            // 저장하는 사이에 샤드 구성이 바뀌었으면 엉뚱한 샤드에 남은 값을 지우고 새 구성으로 다시 저장한다
+            if (topology.ownerOf(memberId) != owner) {
+                owner.store.remove(memberId, member);
+            }
+        }
+    }
+
+    // resize 와 같은 락을 잡으면 재배치 중이 아니므로 save 처럼 다시 시도할 필요 없이 주인 샤드에 바로 넣는다
+    @Override
+    public synchronized void load(Member[] members) {
+        Topology current = topology;
+        for (Member member : members) {
+            current.ownerOf(member.getId()).put(member.getId(), member);
+        }
+    }
+
+    @Override
+    public Member findById(Long memberId) {
+        while (true) {
+            Topology current = topology;
+            Member member = find(current, memberId);
+            // 조회하는 사이에 재배치가 일어났으면 새 구성으로 다시 조회한다
+            if (member != null || topology == current) {
+                return member;
+            }
+        }
+    }
+
+    private static Member find(Topology current, Long memberId) {
+        Shard owner = current.ownerOf(memberId);
+        Member member = owner.get(memberId);
+        if (member != null || current.previous == null) {
+            return member;
+        }
+
+        // 재배치 중: 예전 샤드를 보고, 그 사이에 옮겨졌을 수 있으므로 새 샤드를 한 번 더 본다
+        Shard previousOwner = current.previous.ownerOf(memberId);
+        if (previousOwner != owner) {
+            member = previousOwner.store.get(memberId);
+        }
+        return member != null ? member : owner.store.get(memberId);
+    }
+
+    // resize 와 같은 락을 잡아서, 재배치 도중 회원이 빠지거나 두 번 넘어가지 않게 한다
+    @Override
+    public synchronized void forEach(Consumer<? super Member> action) {
+        for (Shard shard : topology.shards) {
+            shard.store.values().forEach(action);
+        }
+    }
+
+    /**
+     * 샤드 수를 바꾸고, 소속이 바뀐 회원만 새 샤드로 옮긴다.
+     */
+    public synchronized void resize(int newShardCount) {
+        if (newShardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + newShardCount);
+        }
+        Topology old = topology;
+        Shard[] shards = new Shard[newShardCount];
+        for (int i = 0; i < newShardCount; i++) {
+            shards[i] = i < old.shards.length ? old.shards[i] : new Shard(i, initialShardCapacity);
+        }
+        Topology next = new Topology(shards, old);
+        topology = next;
+
+        for (Shard shard : old.shards) {
+            for (Map.Entry<Long, Member> entry : shard.store.entrySet()) {
+                Shard owner = next.ownerOf(entry.getKey());
+                if (owner != shard) {
+                    // 새 샤드에 먼저 넣고 예전 샤드에서 지워야 조회가 비지 않는다. 그 사이 저장된 새 값은 덮어쓰지 않는다
+                    owner.store.putIfAbsent(entry.getKey(), entry.getValue());
+                    shard.store.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        topology = new Topology(shards, null);
+    }
+
+    public int shardCount() {
+        return topology.shards.length;
+    }
+
+    public List<ShardStats> stats() {
+        List<ShardStats> stats = new ArrayList<>();
+        for (Shard shard : topology.shards) {
+            stats.add(new ShardStats(shard.index, shard.store.size(), shard.reads.sum(), shard.writes.sum()));
+        }
+        return stats;
+    }
+
+    /**
+     * @return 가장 큰 샤드의 회원 수 / 샤드 평균 회원 수 (1.0 이면 완전히 고르게 분산됨)
+     */
+    public double loadSkew() {
+        long max = 0;
+        long total = 0;
+        Shard[] shards = topology.shards;
+        for (Shard shard : shards) {
+            int size = shard.store.size();
+            max = Math.max(max, size);
+            total += size;
+        }
+        return total == 0 ? 1.0 : (double) max * shards.length / total;
+    }
+
+    public static class ShardStats {
+        private final int shard;
+        private final int size;
+        private final long reads;
+        private final long writes;
+
+        public ShardStats(int shard, int size, long reads, long writes) {
+            this.shard = shard;
+            this.size = size;
+            this.reads = reads;
+            this.writes = writes;
+        }
+
+        public int getShard() {
+            return shard;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getReads() {
+            return reads;
+        }
+
+        public long getWrites() {
+            return writes;
+        }
+
+        @Override
+        public String toString() {
+            return "ShardStats{" +
+                    "shard=" + shard +
+                    ", size=" + size +
+                    ", reads=" + reads +
+                    ", writes=" + writes +
+                    '}';
+        }
+    }
+
+    private static final class Shard {
+        final int index;
+        final Map<Long, Member> store;
+        final LongAdder reads = new LongAdder();
+        final LongAdder writes = new LongAdder();
+
+        Shard(int index, int initialCapacity) {
+            this.index = index;
+            this.store = new ConcurrentHashMap<>(initialCapacity);
+        }
+
+        Member get(Long memberId) {
+            reads.increment();
+            return store.get(memberId);
+        }
+
+        void put(Long memberId, Member member) {
+            writes.increment();
+            store.put(memberId, member);
+        }
+    }
+
+    /**
+     * 샤드 목록과 해시 링. 재배치 중에는 이전 토폴로지를 함께 들고 있다.
+     */
+    private static final class Topology {
+        final Shard[] shards;
+        final Topology previous;
+        final long[] points;  // 정렬된 링 위의 위치
+        final Shard[] owners; // points[i] 위치를 맡은 샤드
+
+        Topology(Shard[] shards, Topology previous) {
+            this.shards = shards;
+            this.previous = previous;
+
+            long[][] nodes = new long[shards.length * VIRTUAL_NODES][];
+            int n = 0;
+            for (int s = 0; s < shards.length; s++) {
+                for (int v = 0; v < VIRTUAL_NODES; v++) {
+                    nodes[n++] = new long[]{Hashing.mix64(((long) s << 32) | v), s};
+                }
+            }
+            Arrays.sort(nodes, (a, b) -> Long.compare(a[0], b[0]));
+            this.points = new long[nodes.length];
+            this.owners = new Shard[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                points[i] = nodes[i][0];
+                owners[i] = shards[(int) nodes[i][1]];
+            }
+        }
+
+        // id 의 해시 위치에서 시계 방향으로 처음 만나는 가상 노드의 샤드
+        Shard ownerOf(long memberId) {
+            int i = Arrays.binarySearch(points, Hashing.mix64(memberId));
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return owners[i == points.length ? 0 : i];
+        }
+    }
+}
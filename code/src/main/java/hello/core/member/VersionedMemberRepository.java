@@ -0,0 +1,224 @@
+package hello.core.member;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 회원마다 값의 버전 목록을 유지하는 다중 버전(MVCC) 저장소.
+ * 조회는 락 없이 불변 버전을 읽고, 조회할 때마다 그 버전으로 만든 새 Member 를 돌려준다.
+ * 따라서 주문 가격을 계산하는 도중 다른 스레드가 setGrade 를 호출해도 계산 중인 값은 바뀌지 않는다.
+ * 여러 회원을 같은 시점으로 읽어야 하면 openSnapshot() 으로 스냅샷을 열어서 조회한다.
+ * 쓰기는 하나의 락으로 직렬화하며, 열려 있는 스냅샷이 더 이상 볼 수 없는 예전 버전은 쓰기 때와 가장 오래된 스냅샷이 닫힐 때 정리된다.
+ */
+public class VersionedMemberRepository implements MemberRepository, MemberChangeListener {
+
+    private final Map<Long, Version> heads = new ConcurrentHashMap<>();
+    private final Map<Long, Member> tracked = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // 예전 버전이 남아 있는 회원 id. writeLock 안에서만 다룬다
+    private final Set<Long> unpruned = new HashSet<>();
+
+    // 열려 있는 스냅샷 버전 -> 스냅샷 수
+    private final ConcurrentSkipListMap<Long, Integer> activeSnapshots = new ConcurrentSkipListMap<>();
+
+    private volatile long committed;
+    // 이 버전보다 오래된 스냅샷은 새로 열 수 없다 (이미 정리되었을 수 있음)
+    private volatile long horizon;
+
+    @Override
+    public void save(Member member) {
+        track(member);
+        commit(member);
+    }
+
+    // 묶음 전체를 버전 하나로 커밋한다. 그 전에 열린 스냅샷에는 하나도 보이지 않는다
+    @Override
+    public void load(Member[] members) {
+        for (Member member : members) {
+            track(member);
+        }
+        commit(members);
+    }
+
+    @Override
+    public Member findById(Long memberId) {
+        Version head = heads.get(memberId);
+        return head == null ? null : head.toMember(memberId);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Member> action) {
+        heads.forEach((memberId, head) -> action.accept(head.toMember(memberId)));
+    }
+
+    // 저장한 Member 를 수정하면 새 버전으로 기록한다
+    @Override
+    public void nameChanged(Member member, String oldName) {
+        commitIfTracked(member);
+    }
+
+    @Override
+    public void gradeChanged(Member member, Grade oldGrade) {
+        commitIfTracked(member);
+    }
+
+    public Snapshot openSnapshot() {
+        while (true) {
+            long version = committed;
+            activeSnapshots.merge(version, 1, Integer::sum);
+            // 등록 후 horizon 을 확인해야 쓰기 쪽과 엇갈려도 필요한 버전이 지워지지 않는다
+            if (horizon <= version) {
+                return new Snapshot(version);
+            }
+            release(version);
+        }
+    }
+
+    public long committedVersion() {
+        return committed;
+    }
+
+    // 테스트 용도
+    int versionCount(Long memberId) {
+        int count = 0;
+        for (Version version = heads.get(memberId); version != null; version = version.previous) {
+            count++;
+        }
+        return count;
+    }
+
+    private void commitIfTracked(Member member) {
+        if (tracked.get(member.getId()) == member) {
+            commit(member);
+        }
+    }
+
+    private void track(Member member) {
+        Member previous = tracked.put(member.getId(), member);
+        if (previous != null && previous != member) {
+            previous.removeChangeListener(this);
+        }
+        member.addChangeListener(this);
+    }
+
+    private void commit(Member... members) {
+        writeLock.lock();
+        try {
+            long current = committed;
+            horizon = current;
+            Long oldest = firstKeyOrNull();
+            long keepFrom = oldest == null ? current : Math.min(oldest, current);
+
+            long version = current + 1;
+            for (Member member : members) {
+                Version head = new Version(version, member.getName(), member.getGrade(), heads.get(member.getId()));
+                if (!prune(head, keepFrom)) {
+                    unpruned.add(member.getId());
+                }
+                heads.put(member.getId(), head);
+            }
+            committed = version;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // 스냅샷이 닫혀 더 이상 아무도 볼 수 없게 된 예전 버전을, 그 회원이 다시 쓰이기를 기다리지 않고 정리한다
+    private void sweep() {
+        writeLock.lock();
+        try {
+            long current = committed;
+            horizon = current;
+            Long oldest = firstKeyOrNull();
+            long keepFrom = oldest == null ? current : Math.min(oldest, current);
+            unpruned.removeIf(memberId -> prune(heads.get(memberId), keepFrom));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Long firstKeyOrNull() {
+        Map.Entry<Long, Integer> first = activeSnapshots.firstEntry();
+        return first == null ? null : first.getKey();
+    }
+
+    /**
+     * keepFrom 보다 새 버전들과, keepFrom 시점에 보이는 버전 하나만 남긴다.
+     * @return 최신 버전 하나만 남았으면 true
+     */
+    private static boolean prune(Version head, long keepFrom) {
+        Version version = head;
+        while (version != null && version.version > keepFrom) {
+            version = version.previous;
+        }
+        if (version != null) {
+            version.previous = null;
+        }
+        return head == null || head.previous == null;
+    }
+
+    private void release(long version) {
+        activeSnapshots.computeIfPresent(version, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static final class Version {
+        final long version;
+        final String name;
+        final Grade grade;
+        volatile Version previous;
+
+        Version(long version, String name, Grade grade, Version previous) {
+            this.version = version;
+            this.name = name;
+            this.grade = grade;
+            this.previous = previous;
+        }
+
+        Member toMember(Long memberId) {
+            return new Member(memberId, name, grade);
+        }
+    }
+
+    /**
+     * 열린 시점에 커밋된 값만 보이는 읽기 전용 스냅샷. 다 쓰면 반드시 close 해야 예전 버전이 정리된다.
+     */
+    public final class Snapshot implements AutoCloseable {
+
+        private final long version;
+        private boolean closed;
+
+        private Snapshot(long version) {
+            this.version = version;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public Member findById(Long memberId) {
+            Version candidate = heads.get(memberId);
+            while (candidate != null && candidate.version > version) {
+                candidate = candidate.previous;
+            }
+            return candidate == null ? null : candidate.toMember(memberId);
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(version);
+                // 가장 오래된 스냅샷이 사라졌을 때만 정리할 버전이 생긴다
+                Long oldest = firstKeyOrNull();
+                if (oldest == null || oldest > version) {
+                    sweep();
+                }
+            }
+        }
+    }
+}
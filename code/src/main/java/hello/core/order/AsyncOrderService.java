@@ -0,0 +1,7 @@
+package hello.core.order;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncOrderService {
+    CompletableFuture<Order> createOrderAsync(Long memberId, String itemName, int itemPrice);
+}
@@ -0,0 +1,21 @@
+package hello.core.order;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+public class AsyncOrderServiceImpl implements AsyncOrderService {
+
+    private final OrderService orderService;
+    private final Executor executor;
+
+    // 동기 OrderService 를 executor 위에서 실행한다
+    public AsyncOrderServiceImpl(OrderService orderService, Executor executor) {
+        this.orderService = orderService;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Order> createOrderAsync(Long memberId, String itemName, int itemPrice) {
+        return CompletableFuture.supplyAsync(() -> orderService.createOrder(memberId, itemName, itemPrice), executor);
+    }
+}
@@ -0,0 +1,8 @@
+package hello.core.order;
+
+public interface IdempotentOrderService {
+    /**
+     * 같은 idempotencyKey 로 다시 요청하면 주문을 새로 만들지 않고 처음 만든 주문을 돌려준다.
+     */
+    Order createOrder(String idempotencyKey, Long memberId, String itemName, int itemPrice);
+}
@@ -0,0 +1,177 @@
+package hello.core.order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 클라이언트 재시도로 같은 주문이 두 번 만들어지지 않도록, 최근 windowMillis 동안의 멱등 키와 결과 주문을 기억하는 OrderService 데코레이터.
+ * 재시도가 원래 요청보다 먼저 도착해도(처리 중) 원래 요청의 결과를 기다렸다가 같은 Order 를 돌려준다.
+ * 만료는 타이밍 휠로 한다: 키를 만료 시각의 칸에 넣어 두고, 시간이 한 칸 지날 때마다 그 칸만 비운다.
+ * 키가 maxEntries 개를 넘으면 가장 먼저 만료될 칸을 앞당겨 비운다 (그 키의 재시도는 새 주문이 된다).
+ */
+public class IdempotentOrderServiceImpl implements IdempotentOrderService {
+
+    private static final int WHEEL_SIZE = 64;
+
+    private final OrderService orderService;
+    private final long windowMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry>[] wheel;
+    private final long tickMillis;
+    private final ReentrantLock expiryLock = new ReentrantLock();
+    // 아직 비우지 않은 가장 오래된 칸의 tick
+    private volatile long nextTick;
+
+    public IdempotentOrderServiceImpl(OrderService orderService) {
+        this(orderService, TimeUnit.MINUTES.toMillis(10), 1_000_000, System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    public IdempotentOrderServiceImpl(OrderService orderService, long windowMillis, int maxEntries, LongSupplier clock) {
+        this.orderService = orderService;
+        this.windowMillis = windowMillis;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        // 휠 한 바퀴가 windowMillis 보다 길어야 같은 칸에 만료 시각이 다른 키가 섞이지 않는다
+        this.tickMillis = Math.max(1, windowMillis / (WHEEL_SIZE - 2));
+        this.wheel = new ConcurrentLinkedQueue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.nextTick = clock.getAsLong() / tickMillis;
+    }
+
+    @Override
+    public Order createOrder(String idempotencyKey, Long memberId, String itemName, int itemPrice) {
+        long now = clock.getAsLong();
+        expire(now);
+
+        while (true) {
+            Entry entry = entries.get(idempotencyKey);
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    return replay(entry, memberId, itemName, itemPrice);
+                }
+                // 만료됐지만 아직 휠에서 정리되지 않은 키
+                entries.remove(idempotencyKey, entry);
+                continue;
+            }
+
+            Entry created = new Entry(idempotencyKey, memberId, itemName, itemPrice, now + windowMillis);
+            if (entries.putIfAbsent(idempotencyKey, created) == null) {
+                wheel[(int) ((created.expiresAt / tickMillis) % WHEEL_SIZE)].add(created);
+                if (entries.size() > maxEntries) {
+                    evictEarliest();
+                }
+                return create(created);
+            }
+        }
+    }
+
+    // 현재 기억하고 있는 키 수
+    public int size() {
+        return entries.size();
+    }
+
+    private Order create(Entry entry) {
+        try {
+            Order order = orderService.createOrder(entry.memberId, entry.itemName, entry.itemPrice);
+            entry.future.complete(order);
+            return order;
+        } catch (Throwable e) {
+            // 실패한 요청은 기억하지 않는다. 재시도하면 다시 주문을 시도한다
+            // Error 도 여기서 정리하지 않으면 같은 키로 기다리는 요청이 영원히 끝나지 않는다
+            entries.remove(entry.key, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Order replay(Entry entry, Long memberId, String itemName, int itemPrice) {
+        if (!Objects.equals(entry.memberId, memberId) || !Objects.equals(entry.itemName, itemName) || entry.itemPrice != itemPrice) {
+            throw new IllegalArgumentException("idempotency key reused for a different order: " + entry.key);
+        }
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // 지난 칸들을 비운다. 보통은 volatile 읽기 한 번으로 끝난다
+    private void expire(long now) {
+        long currentTick = now / tickMillis;
+        if (currentTick <= nextTick || !expiryLock.tryLock()) {
+            return;
+        }
+        try {
+            long from = nextTick;
+            long to = Math.min(currentTick, from + WHEEL_SIZE);
+            for (long tick = from; tick < to; tick++) {
+                drain(wheel[(int) (tick % WHEEL_SIZE)], now);
+            }
+            nextTick = currentTick;
+        } finally {
+            expiryLock.unlock();
+        }
+    }
+
+    private void drain(ConcurrentLinkedQueue<Entry> bucket, long now) {
+        List<Entry> notYet = new ArrayList<>();
+        Entry entry;
+        while ((entry = bucket.poll()) != null) {
+            if (entry.expiresAt <= now) {
+                entries.remove(entry.key, entry);
+            } else {
+                notYet.add(entry);
+            }
+        }
+        bucket.addAll(notYet);
+    }
+
+    // 가장 먼저 만료될 칸을 시간과 관계없이 비운다
+    private void evictEarliest() {
+        expiryLock.lock();
+        try {
+            for (long tick = nextTick; tick < nextTick + WHEEL_SIZE && entries.size() > maxEntries; tick++) {
+                drain(wheel[(int) (tick % WHEEL_SIZE)], Long.MAX_VALUE);
+            }
+        } finally {
+            expiryLock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final Long memberId;
+        final String itemName;
+        final int itemPrice;
+        final long expiresAt;
+        final CompletableFuture<Order> future = new CompletableFuture<>();
+
+        Entry(String key, Long memberId, String itemName, int itemPrice, long expiresAt) {
+            this.key = key;
+            this.memberId = memberId;
+            this.itemName = itemName;
+            this.itemPrice = itemPrice;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
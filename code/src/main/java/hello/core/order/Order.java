@@ -2,12 +2,18 @@ package hello.core.order;
 
 public class Order {
 
+    private Long id;
     private Long memberId;
     private String itemName;
     private int itemPrice;
     private int discountPrice;
 
     public Order(Long memberId, String itemName, int itemPrice, int discountPrice) {
+        this(null, memberId, itemName, itemPrice, discountPrice);
+    }
+
+    public Order(Long id, Long memberId, String itemName, int itemPrice, int discountPrice) {
+        this.id = id;
         this.memberId = memberId;
         this.itemName = itemName;
         this.itemPrice = itemPrice;
@@ -18,6 +24,14 @@ public class Order {
         return itemPrice - discountPrice;
     }
 
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Long getMemberId() {
         return memberId;
     }
@@ -53,7 +67,8 @@ public class Order {
     @Override
     public String toString() {
         return "Order{" +
-                "memberId=" + memberId +
+                "id=" + id +
+                ", memberId=" + memberId +
                 ", itemName='" + itemName + '\'' +
                 ", itemPrice=" + itemPrice +
                 ", discountPrice=" + discountPrice +
@@ -0,0 +1,229 @@
+package hello.core.order;
+
+import hello.core.common.Hashing;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 주문이 만들어질 때마다 회원별 결제 금액 합계와 상품별 매출을 갱신하는 집계기. OrderServiceImpl 에 OrderListener 로 등록한다.
+ * 회원별 합계는 회원 id 해시로 나눈 여러 조각(stripe)의 long -> long 해시 테이블에 보관하므로, 다른 조각의 회원끼리는 경합하지 않는다.
+ * 회원 한 명 조회는 낙관적 읽기만 하고 읽기 락은 잡지 않으므로 주문 처리 스레드를 막지 않는다. 쓰기와 겹치면 겹치지 않을 때까지 다시 읽는다.
+ * 전체 복사(memberTotals)는 조각 전체를 복사하는 동안 쓰기가 계속 끼어들 수 있으므로 몇 번 실패하면 읽기 락으로 복사한다.
+ */
+public class OrderAnalytics implements OrderListener {
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int stripeShift;
+    private final ConcurrentHashMap<String, LongAdder> itemRevenue = new ConcurrentHashMap<>();
+    private final LongAdder totalRevenue = new LongAdder();
+
+    public OrderAnalytics() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public OrderAnalytics(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(stripeCount, 1) - 1) << 1;
+        size = Math.max(size, 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = size - 1;
+        // 조각이 하나면 32 가 되는데, int 시프트는 32 로 나눈 나머지만큼 움직이므로 stripeMask 로 0 을 만든다
+        this.stripeShift = 32 - Integer.numberOfTrailingZeros(size);
+    }
+
+    @Override
+    public void orderCreated(Order order) {
+        record(order.getMemberId(), order.getItemName(), order.calculatePrice());
+    }
+
+    @Override
+    public void ordersCreated(OrderBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            record(batch.getMemberId(i), batch.getItemName(i), batch.calculatePrice(i));
+        }
+    }
+
+    public long memberTotal(long memberId) {
+        int hash = (int) Hashing.mix64(memberId);
+        return stripeOf(hash).get(memberId, hash);
+    }
+
+    public long itemRevenue(String itemName) {
+        LongAdder revenue = itemRevenue.get(itemName);
+        return revenue == null ? 0 : revenue.sum();
+    }
+
+    public long totalRevenue() {
+        return totalRevenue.sum();
+    }
+
+    /**
+     * @return 회원 id -> 결제 금액 합계. 조각마다 따로 복사하므로 조각 사이에는 시점이 조금 다를 수 있다
+     */
+    public Map<Long, Long> memberTotals() {
+        Map<Long, Long> snapshot = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.copyTo(snapshot);
+        }
+        return snapshot;
+    }
+
+    public Map<String, Long> itemRevenues() {
+        Map<String, Long> snapshot = new HashMap<>();
+        itemRevenue.forEach((itemName, revenue) -> snapshot.put(itemName, revenue.sum()));
+        return snapshot;
+    }
+
+    private void record(long memberId, String itemName, int price) {
+        int hash = (int) Hashing.mix64(memberId);
+        stripeOf(hash).add(memberId, hash, price);
+        if (itemName != null) {
+            itemRevenue.computeIfAbsent(itemName, key -> new LongAdder()).add(price);
+        }
+        totalRevenue.add(price);
+    }
+
+    // 조각 안의 슬롯은 해시의 아래 비트로 고르므로 조각은 맨 위 비트로 고른다. 조각이 커져도 두 비트 구간이 겹치지 않는다
+    private Stripe stripeOf(int hash) {
+        return stripes[(hash >>> stripeShift) & stripeMask];
+    }
+
+    /**
+     * 선형 탐사 long -> long 해시 테이블 하나. 쓰기는 쓰기 락으로 직렬화한다.
+     */
+    private static final class Stripe {
+
+        private static final int OPTIMISTIC_COPY_RETRIES = 3;
+
+        private final StampedLock lock = new StampedLock();
+        private long[] keys = new long[16];
+        private long[] totals = new long[16];
+        private boolean[] used = new boolean[16];
+        private int size;
+
+        void add(long memberId, int hash, long amount) {
+            long stamp = lock.writeLock();
+            try {
+                if ((size + 1) * 2 > keys.length) {
+                    resize();
+                }
+                int slot = slotOf(keys, used, memberId, hash);
+                if (!used[slot]) {
+                    used[slot] = true;
+                    keys[slot] = memberId;
+                    size++;
+                }
+                totals[slot] += amount;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // 쓰기 락은 슬롯 하나를 더하는 동안만 잡히므로 곧 성공한다
+        long get(long memberId, int hash) {
+            while (true) {
+                long stamp = lock.tryOptimisticRead();
+                if (stamp != 0) {
+                    long total = find(memberId, hash);
+                    if (lock.validate(stamp)) {
+                        return total;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        // 큰 조각은 복사하는 동안 매번 쓰기가 끼어들 수 있으므로, 무한히 다시 읽지 않고 읽기 락으로 넘어간다
+        void copyTo(Map<Long, Long> snapshot) {
+            for (int attempt = 0; attempt < OPTIMISTIC_COPY_RETRIES; attempt++) {
+                long stamp = lock.tryOptimisticRead();
+                if (stamp == 0) {
+                    break;
+                }
+                long[] keys = this.keys;
+                long[] totals = this.totals;
+                boolean[] used = this.used;
+                // 배열이 교체되는 중이면 길이가 다를 수 있다
+                if (keys.length == totals.length && keys.length == used.length) {
+                    long[] keyCopy = keys.clone();
+                    long[] totalCopy = totals.clone();
+                    boolean[] usedCopy = used.clone();
+                    if (lock.validate(stamp)) {
+                        putAll(snapshot, keyCopy, totalCopy, usedCopy);
+                        return;
+                    }
+                }
+            }
+            long stamp = lock.readLock();
+            try {
+                putAll(snapshot, keys, totals, used);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // 낙관적 읽기 중에는 배열이 교체될 수 있으므로 지역 변수로 잡고, 길이가 다르면 0 을 돌려준다 (validate 에서 걸러진다)
+        private long find(long memberId, int hash) {
+            long[] keys = this.keys;
+            long[] totals = this.totals;
+            boolean[] used = this.used;
+            if (keys.length != totals.length || keys.length != used.length) {
+                return 0;
+            }
+            int mask = keys.length - 1;
+            for (int i = hash & mask, probes = 0; probes < keys.length; i = (i + 1) & mask, probes++) {
+                if (!used[i]) {
+                    return 0;
+                }
+                if (keys[i] == memberId) {
+                    return totals[i];
+                }
+            }
+            return 0;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldTotals = totals;
+            boolean[] oldUsed = used;
+            long[] newKeys = new long[oldKeys.length * 2];
+            long[] newTotals = new long[newKeys.length];
+            boolean[] newUsed = new boolean[newKeys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = slotOf(newKeys, newUsed, oldKeys[i], (int) Hashing.mix64(oldKeys[i]));
+                    newUsed[slot] = true;
+                    newKeys[slot] = oldKeys[i];
+                    newTotals[slot] = oldTotals[i];
+                }
+            }
+            keys = newKeys;
+            totals = newTotals;
+            used = newUsed;
+        }
+
+        private static int slotOf(long[] keys, boolean[] used, long memberId, int hash) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            while (used[i] && keys[i] != memberId) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private static void putAll(Map<Long, Long> snapshot, long[] keys, long[] totals, boolean[] used) {
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]) {
+                    snapshot.put(keys[i], totals[i]);
+                }
+            }
+        }
+    }
+}
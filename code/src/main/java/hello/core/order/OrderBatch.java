@@ -0,0 +1,63 @@
+package hello.core.order;
+
+/**
+ * createOrders 의 결과. 주문마다 Order 객체를 만들지 않고 필드별 배열(컬럼)에 담는다.
+ * i 번째 값은 요청한 i 번째 OrderLine 의 주문이다.
+ */
+public class OrderBatch {
+
+    private final long[] orderIds;
+    private final long[] memberIds;
+    private final String[] itemNames;
+    private final int[] itemPrices;
+    private final int[] discountPrices;
+
+    public OrderBatch(long[] orderIds, long[] memberIds, String[] itemNames, int[] itemPrices, int[] discountPrices) {
+        this.orderIds = orderIds;
+        this.memberIds = memberIds;
+        this.itemNames = itemNames;
+        this.itemPrices = itemPrices;
+        this.discountPrices = discountPrices;
+    }
+
+    public int size() {
+        return memberIds.length;
+    }
+
+    public long getOrderId(int index) {
+        return orderIds[index];
+    }
+
+    public long getMemberId(int index) {
+        return memberIds[index];
+    }
+
+    public String getItemName(int index) {
+        return itemNames[index];
+    }
+
+    public int getItemPrice(int index) {
+        return itemPrices[index];
+    }
+
+    public int getDiscountPrice(int index) {
+        return discountPrices[index];
+    }
+
+    public int calculatePrice(int index) {
+        return itemPrices[index] - discountPrices[index];
+    }
+
+    public long totalPrice() {
+        long total = 0;
+        for (int i = 0; i < memberIds.length; i++) {
+            total += itemPrices[i] - discountPrices[i];
+        }
+        return total;
+    }
+
+    // 필요한 주문만 Order 로 꺼내 쓴다
+    public Order toOrder(int index) {
+        return new Order(orderIds[index], memberIds[index], itemNames[index], itemPrices[index], discountPrices[index]);
+    }
+}
@@ -0,0 +1,85 @@
+package hello.core.order;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * 락 없이 만드는 64비트 주문 id. 대략 시간 순서로 정렬된다.
+ * <pre>
+ * 0 | timestamp(41, EPOCH 이후 ms) | node(8) | stripe(4) | sequence(10)
+ * </pre>
+ * 스레드마다 stripe 하나를 배정하고, stripe 마다 (마지막 timestamp, sequence) 를 long 하나에 담아 CAS 로 갱신한다.
+ * 같은 ms 에 sequence 가 넘치거나 시계가 뒤로 가면 마지막 timestamp 에서 계속 증가시키므로 id 가 겹치거나 줄어들지 않는다.
+ * 겹치지 않음은 생성기 하나 안에서만 보장된다. 같은 node id 의 생성기가 둘이면 같은 id 를 만들 수 있으므로,
+ * 주문 서비스들은 프로세스 전체가 함께 쓰는 shared() 를 기본으로 쓰고, 프로세스마다 node id 를 다르게 준다.
+ */
+public class OrderIdGenerator {
+
+    public static final long EPOCH = 1577836800000L; // 2020-01-01T00:00:00Z
+    // 예: java -Dhello.order.node-id=3 ...
+    public static final String NODE_ID_PROPERTY = "hello.order.node-id";
+
+    private static final int SEQUENCE_BITS = 10;
+    private static final int STRIPE_BITS = 4;
+    private static final int NODE_BITS = 8;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    // stripe 상태끼리 같은 캐시 라인을 쓰지 않도록 8칸(64바이트)씩 띄운다
+    private static final int PADDING = 8;
+
+    private final long node;
+    private final LongSupplier clock;
+    private final AtomicLongArray states = new AtomicLongArray(STRIPES * PADDING);
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private final ThreadLocal<Integer> stripe = ThreadLocal.withInitial(() -> nextStripe.getAndIncrement() & (STRIPES - 1));
+
+    public OrderIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    public OrderIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId >= (1 << NODE_BITS)) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + ((1 << NODE_BITS) - 1) + ": " + nodeId);
+        }
+        this.node = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * @return 프로세스 전체가 함께 쓰는 생성기. node id 는 시스템 속성 hello.order.node-id 로 정하며 기본은 0 이다
+     */
+    public static OrderIdGenerator shared() {
+        return Shared.INSTANCE;
+    }
+
+    public long nextId() {
+        int stripe = this.stripe.get();
+        int index = stripe * PADDING;
+        long now = clock.getAsLong() - EPOCH;
+        while (true) {
+            long state = states.get(index);
+            // 시계가 앞으로 갔으면 sequence 0 부터, 아니면(같은 ms, 시계 역행) 이어서 증가. 넘치면 timestamp 로 올라간다
+            long next = now > (state >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : state + 1;
+            if (states.compareAndSet(index, state, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + STRIPE_BITS + SEQUENCE_BITS)
+                        | node << (STRIPE_BITS + SEQUENCE_BITS)
+                        | (long) stripe << SEQUENCE_BITS
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + STRIPE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> (STRIPE_BITS + SEQUENCE_BITS)) & ((1 << NODE_BITS) - 1));
+    }
+
+    // 처음 shared() 를 부를 때 만든다
+    private static final class Shared {
+        static final OrderIdGenerator INSTANCE = new OrderIdGenerator(Integer.parseInt(System.getProperty(NODE_ID_PROPERTY, "0")));
+    }
+}
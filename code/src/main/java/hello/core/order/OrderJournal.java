@@ -0,0 +1,402 @@
+package hello.core.order;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 만들어진 주문을 로컬 파일 끝에 덧붙여 기록하는 주문 저널. OrderServiceImpl 에 OrderListener 로 등록해서 사용한다.
+ * 디스크 동기화(fsync)는 Durability 에 따라 다르게 한다.
+ * <ul>
+ * <li>ASYNC: 기록만 하고 바로 돌아간다. 백그라운드 스레드가 flushIntervalMillis 마다 동기화한다</li>
+ * <li>GROUP: 자기 주문이 동기화될 때까지 기다린다. 동시에 기다리는 주문들은 fsync 한 번으로 같이 내린다(그룹 커밋)</li>
+ * <li>SYNC: 주문 한 건마다 fsync 한다</li>
+ * </ul>
+ * 기록 도중 끊긴 꼬리 레코드는 다시 열 때 잘라낸다.
+ * 다시 열 때는 파일을 최대 2GB 크기의 창(window)으로 나눠 차례로 매핑하며 읽으므로, 저널 크기에는 제한이 없다.
+ */
+public class OrderJournal implements OrderListener, Closeable {
+
+    public enum Durability {
+        ASYNC,
+        GROUP,
+        SYNC
+    }
+
+    // 레코드 레이아웃: bodyLength(4) | crc32(4) | body[orderId(8, 없으면 0) | memberId(8) | itemPrice(4) | discountPrice(4) | nameLength(2) | name]
+    private static final int HEADER_SIZE = 8;
+    private static final int FIXED_BODY_SIZE = 8 + 8 + 4 + 4 + 2;
+    private static final int MAX_BODY_SIZE = FIXED_BODY_SIZE + Short.MAX_VALUE;
+    private static final int MAX_RECORD_SIZE = HEADER_SIZE + MAX_BODY_SIZE;
+
+    private final FileChannel channel;
+    private final Durability durability;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final CRC32 crc = new CRC32();
+    private final Thread flusher;
+    private volatile boolean stopping;
+
+    // 아래 필드는 lock 으로 보호한다. 동기화하는 동안 다른 주문은 pending 에 쌓인다
+    private ByteBuffer pending = newBuffer(1 << 16);
+    private ByteBuffer spare = newBuffer(1 << 16);
+    private long appended;
+    private long durable;
+    private boolean flushing;
+    private long syncCount;
+    private boolean closed;
+    // 동기화에 한 번 실패하면 어디까지 기록됐는지 알 수 없으므로 이후 기록을 모두 거절한다
+    private IOException failure;
+
+    public OrderJournal(Path file, Durability durability) {
+        this(file, durability, 10);
+    }
+
+    public OrderJournal(Path file, Durability durability, long flushIntervalMillis) {
+        this(file, durability, flushIntervalMillis, Integer.MAX_VALUE);
+    }
+
+    // 테스트 용도: 작은 창으로 여러 번 나눠 매핑하는 경로를 검증한다
+    OrderJournal(Path file, Durability durability, long flushIntervalMillis, int replayWindowSize) {
+        this.durability = durability;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long valid = replay(channel, order -> {
+            }, replayWindowSize);
+            channel.truncate(valid);
+            channel.position(valid);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (durability == Durability.ASYNC) {
+            // 기록 중에 interrupt 하면 FileChannel 이 닫히므로 interrupt 대신 플래그와 unpark 로 멈춘다
+            flusher = new Thread(() -> {
+                while (!stopping) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+                    try {
+                        flush();
+                    } catch (Throwable e) {
+                        // 실패한 뒤로는 기록이 모두 거절되어 더 동기화할 것이 없다. 원인을 남기고 끝낸다
+                        fail(e);
+                        return;
+                    }
+                }
+            }, "order-journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public void orderCreated(Order order) {
+        switch (durability) {
+            case ASYNC:
+                append(order);
+                break;
+            case GROUP:
+                awaitDurable(append(order));
+                break;
+            case SYNC:
+                // 다른 주문이 같은 fsync 에 묶이지 않도록 기록과 동기화를 한 건씩 한다
+                syncLock.lock();
+                try {
+                    awaitDurable(append(order));
+                } finally {
+                    syncLock.unlock();
+                }
+                break;
+        }
+    }
+
+    // 지금까지 기록한 주문을 모두 디스크에 내린다
+    public void flush() {
+        long target;
+        lock.lock();
+        try {
+            target = appended;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(target);
+    }
+
+    // 테스트 용도: 지금까지 한 fsync 횟수
+    public long syncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 테스트 용도
+    Thread flusher() {
+        return flusher;
+    }
+
+    // 먼저 새 기록을 막은 뒤에 남은 기록을 모두 내리고 닫는다. 동기화에 실패했으면 채널을 닫고 그 예외를 던진다
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            stopping = true;
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * 저널을 처음부터 순서대로 읽는다. 끊긴 꼬리 레코드에서 멈춘다.
+     *
+     * @return 읽은 주문 수
+     */
+    public static long replay(Path file, Consumer<Order> consumer) {
+        return replay(file, consumer, Integer.MAX_VALUE);
+    }
+
+    static long replay(Path file, Consumer<Order> consumer, int windowSize) {
+        long[] count = new long[1];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            replay(channel, order -> {
+                consumer.accept(order);
+                count[0]++;
+            }, windowSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count[0];
+    }
+
+    // 유효한 레코드를 consumer 에 넘기고, 유효한 부분의 길이를 돌려준다
+    private static long replay(FileChannel channel, Consumer<Order> consumer, int windowSize) throws IOException {
+        // 창 하나에는 가장 긴 레코드도 온전히 들어가야 한다
+        windowSize = Math.max(windowSize, MAX_RECORD_SIZE);
+        long size = channel.size();
+        CRC32 crc = new CRC32();
+        byte[] name = new byte[256];
+
+        MappedByteBuffer window = null;
+        long windowStart = 0;
+        long offset = 0;
+        while (offset + HEADER_SIZE <= size) {
+            if (window == null || offset + HEADER_SIZE > windowStart + window.capacity()) {
+                windowStart = offset;
+                window = map(channel, windowStart, size, windowSize);
+            }
+            int bodyLength = window.getInt((int) (offset - windowStart));
+            if (bodyLength < FIXED_BODY_SIZE || bodyLength > MAX_BODY_SIZE) {
+                break;
+            }
+            // 레코드가 창 경계에 걸치면 그 레코드의 시작부터 다음 창을 매핑한다
+            long end = offset + HEADER_SIZE + bodyLength;
+            if (end > windowStart + window.capacity() && end <= size) {
+                windowStart = offset;
+                window = map(channel, windowStart, size, windowSize);
+            }
+            int start = (int) (offset - windowStart);
+            int body = start + HEADER_SIZE;
+            if (body + bodyLength > window.capacity()) {
+                break;
+            }
+            crc.reset();
+            window.limit(body + bodyLength).position(body);
+            crc.update(window);
+            window.limit(window.capacity());
+            if (window.getInt(start + 4) != (int) crc.getValue()) {
+                break;
+            }
+
+            long orderId = window.getLong(body);
+            long memberId = window.getLong(body + 8);
+            int itemPrice = window.getInt(body + 16);
+            int discountPrice = window.getInt(body + 20);
+            int nameLength = window.getShort(body + 24);
+            String itemName = null;
+            if (nameLength >= 0) {
+                if (nameLength > name.length) {
+                    name = new byte[nameLength];
+                }
+                window.position(body + FIXED_BODY_SIZE);
+                window.get(name, 0, nameLength);
+                itemName = new String(name, 0, nameLength, StandardCharsets.UTF_8);
+            }
+            consumer.accept(new Order(orderId == 0 ? null : orderId, memberId, itemName, itemPrice, discountPrice));
+            offset += HEADER_SIZE + bodyLength;
+        }
+        return offset;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long start, long size, int windowSize) throws IOException {
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, windowSize));
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        return window;
+    }
+
+    private long append(Order order) {
+        byte[] name = order.getItemName() == null ? null : order.getItemName().getBytes(StandardCharsets.UTF_8);
+        if (name != null && name.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("itemName is too long: " + name.length + " bytes");
+        }
+        int bodyLength = FIXED_BODY_SIZE + (name == null ? 0 : name.length);
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("order journal is closed");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+            if (pending.remaining() < HEADER_SIZE + bodyLength) {
+                pending = grow(pending, HEADER_SIZE + bodyLength);
+            }
+            int start = pending.position();
+            int body = start + HEADER_SIZE;
+            pending.position(body);
+            pending.putLong(order.getId() == null ? 0 : order.getId());
+            pending.putLong(order.getMemberId());
+            pending.putInt(order.getItemPrice());
+            pending.putInt(order.getDiscountPrice());
+            pending.putShort(name == null ? -1 : (short) name.length);
+            if (name != null) {
+                pending.put(name);
+            }
+
+            crc.reset();
+            ByteBuffer slice = pending.duplicate();
+            slice.limit(body + bodyLength).position(body);
+            crc.update(slice);
+            pending.putInt(start, bodyLength);
+            pending.putInt(start + 4, (int) crc.getValue());
+            return ++appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // sequence 번째 주문까지 디스크에 내려갈 때까지 기다린다. 동기화 중인 스레드가 없으면 직접 동기화한다
+    private void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException(failure);
+                }
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+
+                flushing = true;
+                ByteBuffer batch = pending;
+                pending = spare;
+                long upTo = appended;
+                lock.unlock();
+                Throwable error = null;
+                try {
+                    batch.flip();
+                    while (batch.hasRemaining()) {
+                        channel.write(batch);
+                    }
+                    channel.force(false);
+                } catch (Throwable e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                }
+
+                batch.clear();
+                spare = batch;
+                flushing = false;
+                if (error != null) {
+                    recordFailure(error);
+                } else {
+                    durable = upTo;
+                    syncCount++;
+                }
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(Throwable cause) {
+        lock.lock();
+        try {
+            recordFailure(cause);
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // lock 을 잡은 채로 부른다. 처음 원인만 남긴다
+    private void recordFailure(Throwable cause) {
+        if (failure != null) {
+            return;
+        }
+        if (cause instanceof UncheckedIOException) {
+            cause = cause.getCause();
+        }
+        failure = cause instanceof IOException ? (IOException) cause : new IOException("order journal sync failed", cause);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int required) {
+        long capacity = buffer.capacity();
+        while (capacity - buffer.position() < required) {
+            capacity <<= 1;
+        }
+        // 동기화가 밀려 쌓인 기록이 ByteBuffer 한 개의 한계를 넘으면 더 받지 않는다
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("order journal has too many unsynced records: " + buffer.position() + " bytes");
+        }
+        ByteBuffer grown = newBuffer((int) capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
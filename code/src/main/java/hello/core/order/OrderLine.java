@@ -0,0 +1,35 @@
+package hello.core.order;
+
+public class OrderLine {
+
+    private final Long memberId;
+    private final String itemName;
+    private final int itemPrice;
+
+    public OrderLine(Long memberId, String itemName, int itemPrice) {
+        this.memberId = memberId;
+        this.itemName = itemName;
+        this.itemPrice = itemPrice;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public int getItemPrice() {
+        return itemPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderLine{" +
+                "memberId=" + memberId +
+                ", itemName='" + itemName + '\'' +
+                ", itemPrice=" + itemPrice +
+                '}';
+    }
+}
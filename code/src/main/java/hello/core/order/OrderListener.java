@@ -0,0 +1,16 @@
+package hello.core.order;
+
+/**
+ * 주문이 만들어질 때 호출된다. 주문 처리 스레드에서 바로 호출되므로 오래 걸리는 작업을 하면 안 된다.
+ */
+public interface OrderListener {
+
+    void orderCreated(Order order);
+
+    // 컬럼 형태 그대로 처리할 수 있는 리스너는 오버라이드한다
+    default void ordersCreated(OrderBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            orderCreated(batch.toOrder(i));
+        }
+    }
+}
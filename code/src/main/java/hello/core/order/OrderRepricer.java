@@ -0,0 +1,201 @@
+package hello.core.order;
+
+import hello.core.discount.DiscountPolicy;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 할인 정책이 바뀌었을 때 저장된 주문들의 할인 금액을 새 정책으로 다시 계산하는 일괄 작업.
+ * 주문을 구간으로 나눠 fork/join 으로 병렬 처리하고, 구간마다 나오는 회원은 findAllById 한 번으로 모아 조회한다(구간별 회원 캐시).
+ * 회원이 없어진 주문은 원래 할인 금액을 그대로 둔다.
+ */
+public class OrderRepricer {
+
+    // 이보다 작은 구간은 더 나누지 않는다
+    private static final int THRESHOLD = 8192;
+
+    private final MemberRepository memberRepository;
+    private final DiscountPolicy discountPolicy;
+    private final ForkJoinPool pool;
+
+    public OrderRepricer(MemberRepository memberRepository, DiscountPolicy discountPolicy) {
+        this(memberRepository, discountPolicy, ForkJoinPool.commonPool());
+    }
+
+    public OrderRepricer(MemberRepository memberRepository, DiscountPolicy discountPolicy, ForkJoinPool pool) {
+        this.memberRepository = memberRepository;
+        this.discountPolicy = discountPolicy;
+        this.pool = pool;
+    }
+
+    public Repricing reprice(OrderBatch orders) {
+        int[] discountPrices = new int[orders.size()];
+        Stats stats = pool.invoke(new RepriceTask(orders, discountPrices, 0, orders.size()));
+        return new Repricing(orders, discountPrices, stats);
+    }
+
+    private final class RepriceTask extends RecursiveTask<Stats> {
+        private final OrderBatch orders;
+        private final int[] discountPrices;
+        private final int from;
+        private final int to;
+
+        RepriceTask(OrderBatch orders, int[] discountPrices, int from, int to) {
+            this.orders = orders;
+            this.discountPrices = discountPrices;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= THRESHOLD) {
+                return repriceRange();
+            }
+            int mid = (from + to) >>> 1;
+            RepriceTask left = new RepriceTask(orders, discountPrices, from, mid);
+            left.fork();
+            Stats right = new RepriceTask(orders, discountPrices, mid, to).compute();
+            return left.join().add(right);
+        }
+
+        private Stats repriceRange() {
+            long[] distinct = new long[to - from];
+            for (int i = from; i < to; i++) {
+                distinct[i - from] = orders.getMemberId(i);
+            }
+            distinct = distinctSorted(distinct);
+            Member[] members = memberRepository.findAllById(distinct);
+
+            Stats stats = new Stats();
+            int last = -1;
+            for (int i = from; i < to; i++) {
+                long memberId = orders.getMemberId(i);
+                if (last < 0 || distinct[last] != memberId) {
+                    last = Arrays.binarySearch(distinct, memberId);
+                }
+                int oldDiscount = orders.getDiscountPrice(i);
+                Member member = members[last];
+                if (member == null) {
+                    discountPrices[i] = oldDiscount;
+                    stats.missing++;
+                    continue;
+                }
+                int newDiscount = discountPolicy.discount(member, orders.getItemPrice(i));
+                discountPrices[i] = newDiscount;
+                // 결제 금액 기준의 변화량. 할인이 줄면 양수
+                long delta = oldDiscount - newDiscount;
+                if (delta > 0) {
+                    stats.increased++;
+                } else if (delta < 0) {
+                    stats.decreased++;
+                }
+                stats.totalDelta += delta;
+            }
+            return stats;
+        }
+    }
+
+    private static long[] distinctSorted(long[] memberIds) {
+        Arrays.sort(memberIds);
+        int count = 0;
+        for (int i = 0; i < memberIds.length; i++) {
+            if (i == 0 || memberIds[i] != memberIds[i - 1]) {
+                memberIds[count++] = memberIds[i];
+            }
+        }
+        return Arrays.copyOf(memberIds, count);
+    }
+
+    private static final class Stats {
+        long increased;
+        long decreased;
+        long missing;
+        long totalDelta;
+
+        Stats add(Stats other) {
+            increased += other.increased;
+            decreased += other.decreased;
+            missing += other.missing;
+            totalDelta += other.totalDelta;
+            return this;
+        }
+    }
+
+    /**
+     * 재계산 결과. 가격 변화량은 (새 결제 금액 - 기존 결제 금액) 이다.
+     */
+    public static final class Repricing {
+        private final OrderBatch orders;
+        private final int[] discountPrices;
+        private final Stats stats;
+
+        private Repricing(OrderBatch orders, int[] discountPrices, Stats stats) {
+            this.orders = orders;
+            this.discountPrices = discountPrices;
+            this.stats = stats;
+        }
+
+        public int size() {
+            return discountPrices.length;
+        }
+
+        public int getDiscountPrice(int index) {
+            return discountPrices[index];
+        }
+
+        public int priceDelta(int index) {
+            return orders.getDiscountPrice(index) - discountPrices[index];
+        }
+
+        // 결제 금액이 오른 주문 수
+        public long increasedCount() {
+            return stats.increased;
+        }
+
+        // 결제 금액이 내린 주문 수
+        public long decreasedCount() {
+            return stats.decreased;
+        }
+
+        // 회원이 없어서 다시 계산하지 못한 주문 수
+        public long missingCount() {
+            return stats.missing;
+        }
+
+        public long totalDelta() {
+            return stats.totalDelta;
+        }
+
+        // 새 할인 금액을 반영한 주문들
+        public OrderBatch toBatch() {
+            int size = orders.size();
+            long[] orderIds = new long[size];
+            long[] memberIds = new long[size];
+            String[] itemNames = new String[size];
+            int[] itemPrices = new int[size];
+            for (int i = 0; i < size; i++) {
+                orderIds[i] = orders.getOrderId(i);
+                memberIds[i] = orders.getMemberId(i);
+                itemNames[i] = orders.getItemName(i);
+                itemPrices[i] = orders.getItemPrice(i);
+            }
+            return new OrderBatch(orderIds, memberIds, itemNames, itemPrices, discountPrices.clone());
+        }
+
+        @Override
+        public String toString() {
+            return "Repricing{" +
+                    "size=" + size() +
+                    ", increased=" + stats.increased +
+                    ", decreased=" + stats.decreased +
+                    ", missing=" + stats.missing +
+                    ", totalDelta=" + stats.totalDelta +
+                    '}';
+        }
+    }
+}
@@ -1,5 +1,28 @@
 package hello.core.order;
 
+import java.util.List;
+
 public interface OrderService {
     Order createOrder(Long memberId, String itemName, int itemPrice);
+
+    // 회원 조회를 묶어서 할 수 있는 구현체는 오버라이드한다
+    default OrderBatch createOrders(List<OrderLine> lines) {
+        int size = lines.size();
+        long[] orderIds = new long[size];
+        long[] memberIds = new long[size];
+        String[] itemNames = new String[size];
+        int[] itemPrices = new int[size];
+        int[] discountPrices = new int[size];
+        for (int i = 0; i < size; i++) {
+            OrderLine line = lines.get(i);
+            Order order = createOrder(line.getMemberId(), line.getItemName(), line.getItemPrice());
+            // id 를 붙이지 않는 구현체면 0
+            orderIds[i] = order.getId() == null ? 0 : order.getId();
+            memberIds[i] = order.getMemberId();
+            itemNames[i] = order.getItemName();
+            itemPrices[i] = order.getItemPrice();
+            discountPrices[i] = order.getDiscountPrice();
+        }
+        return new OrderBatch(orderIds, memberIds, itemNames, itemPrices, discountPrices);
+    }
 }
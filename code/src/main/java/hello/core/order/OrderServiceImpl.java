@@ -7,22 +7,89 @@ import hello.core.member.Member;
 import hello.core.member.MemberRepository;
 import hello.core.member.MemoryMemberRepository;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class OrderServiceImpl implements OrderService {
 
     private final MemberRepository memberRepository;
     private final DiscountPolicy discountPolicy;
+    private final OrderListener[] listeners;
+    private final OrderIdGenerator idGenerator;
 
     public OrderServiceImpl(MemberRepository memberRepository, DiscountPolicy discountPolicy) {
+        this(memberRepository, discountPolicy, Collections.emptyList());
+    }
+
+    public OrderServiceImpl(MemberRepository memberRepository, DiscountPolicy discountPolicy, List<OrderListener> listeners) {
+        this(memberRepository, discountPolicy, listeners, OrderIdGenerator.shared());
+    }
+
+    public OrderServiceImpl(MemberRepository memberRepository, DiscountPolicy discountPolicy, List<OrderListener> listeners, OrderIdGenerator idGenerator) {
         this.memberRepository = memberRepository;
         this.discountPolicy = discountPolicy;
+        this.listeners = listeners.toArray(new OrderListener[0]);
+        this.idGenerator = idGenerator;
     }
 
     @Override
     public Order createOrder(Long memberId, String itemName, int itemPrice) {
-        Member member = memberRepository.findById(memberId); // 회원 조회
+        Member member = memberRepository.findById(memberId.longValue()); // 회원 조회
         int discountPrice = discountPolicy.discount(member, itemPrice);
 
-        return new Order(memberId, itemName, itemPrice, discountPrice);
+        Order order = new Order(idGenerator.nextId(), memberId, itemName, itemPrice, discountPrice);
+        for (OrderListener listener : listeners) {
+            listener.orderCreated(order);
+        }
+        return order;
+    }
+
+    // 같은 회원은 한 번만 조회하고, 할인 계산은 조회 없이 한 루프에서 끝낸다
+    @Override
+    public OrderBatch createOrders(List<OrderLine> lines) {
+        int size = lines.size();
+        long[] orderIds = new long[size];
+        long[] memberIds = new long[size];
+        String[] itemNames = new String[size];
+        int[] itemPrices = new int[size];
+        int[] discountPrices = new int[size];
+        for (int i = 0; i < size; i++) {
+            OrderLine line = lines.get(i);
+            memberIds[i] = line.getMemberId();
+            itemNames[i] = line.getItemName();
+            itemPrices[i] = line.getItemPrice();
+        }
+
+        long[] distinct = distinctSorted(memberIds);
+        Member[] members = memberRepository.findAllById(distinct);
+
+        int last = -1;
+        for (int i = 0; i < size; i++) {
+            // 같은 회원의 줄이 이어지는 경우가 대부분이므로 직전 회원이면 다시 찾지 않는다
+            if (last < 0 || distinct[last] != memberIds[i]) {
+                last = Arrays.binarySearch(distinct, memberIds[i]);
+            }
+            discountPrices[i] = discountPolicy.discount(members[last], itemPrices[i]);
+            orderIds[i] = idGenerator.nextId();
+        }
+        OrderBatch batch = new OrderBatch(orderIds, memberIds, itemNames, itemPrices, discountPrices);
+        for (OrderListener listener : listeners) {
+            listener.ordersCreated(batch);
+        }
+        return batch;
+    }
+
+    private static long[] distinctSorted(long[] memberIds) {
+        long[] sorted = memberIds.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
     }
 
     // 테스트 용도
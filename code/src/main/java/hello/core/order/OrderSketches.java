@@ -0,0 +1,123 @@
+package hello.core.order;
+
+import hello.core.common.HyperLogLog;
+import hello.core.common.SpaceSaving;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * 최근 주문에서 많이 팔린 상품(top-N)과 주문한 서로 다른 회원 수를 근사로 구하는 집계기. OrderServiceImpl 에 OrderListener 로 등록한다.
+ * 시간을 windowMillis 단위 구간으로 나누고 최근 windowCount 개 구간만 유지하며, 조회할 때 구간들의 스케치를 합친다.
+ * 정확한 Map 대신 구간마다 SpaceSaving(상품)과 HyperLogLog(회원)를 쓰므로 주문량과 관계없이 메모리가 고정된다.
+ */
+public class OrderSketches implements OrderListener {
+
+    private final Window[] windows;
+    private final long windowMillis;
+    private final int topCapacity;
+    private final int precision;
+    private final LongSupplier clock;
+
+    public OrderSketches(int windowCount, long windowMillis) {
+        this(windowCount, windowMillis, 1000, 14, System::currentTimeMillis);
+    }
+
+    public OrderSketches(int windowCount, long windowMillis, int topCapacity, int precision, LongSupplier clock) {
+        this.windowMillis = windowMillis;
+        this.topCapacity = topCapacity;
+        this.precision = precision;
+        this.clock = clock;
+        this.windows = new Window[windowCount];
+        for (int i = 0; i < windowCount; i++) {
+            windows[i] = new Window(topCapacity, precision);
+        }
+    }
+
+    @Override
+    public void orderCreated(Order order) {
+        long epoch = epoch();
+        Window window = windows[(int) (epoch % windows.length)];
+        synchronized (window) {
+            window.rollTo(epoch);
+            window.record(order.getMemberId(), order.getItemName());
+        }
+    }
+
+    @Override
+    public void ordersCreated(OrderBatch batch) {
+        long epoch = epoch();
+        Window window = windows[(int) (epoch % windows.length)];
+        synchronized (window) {
+            window.rollTo(epoch);
+            for (int i = 0; i < batch.size(); i++) {
+                window.record(batch.getMemberId(i), batch.getItemName(i));
+            }
+        }
+    }
+
+    /**
+     * @return 최근 구간들에서 많이 주문된 상품 순서로 최대 n 개 (횟수는 상한 추정치)
+     */
+    public List<SpaceSaving.Entry<String>> topItems(int n) {
+        SpaceSaving<String> merged = new SpaceSaving<>(topCapacity);
+        long epoch = epoch();
+        for (Window window : windows) {
+            synchronized (window) {
+                if (live(window, epoch)) {
+                    merged.merge(window.items);
+                }
+            }
+        }
+        return merged.top(n);
+    }
+
+    // 최근 구간들에서 주문한 서로 다른 회원 수 추정치
+    public long distinctMembers() {
+        HyperLogLog merged = new HyperLogLog(precision);
+        long epoch = epoch();
+        for (Window window : windows) {
+            synchronized (window) {
+                if (live(window, epoch)) {
+                    merged.merge(window.members);
+                }
+            }
+        }
+        return merged.estimate();
+    }
+
+    private long epoch() {
+        return clock.getAsLong() / windowMillis;
+    }
+
+    private boolean live(Window window, long epoch) {
+        return window.epoch > epoch - windows.length && window.epoch <= epoch;
+    }
+
+    private static final class Window {
+        long epoch = Long.MIN_VALUE;
+        final SpaceSaving<String> items;
+        final HyperLogLog members;
+
+        Window(int topCapacity, int precision) {
+            this.items = new SpaceSaving<>(topCapacity);
+            this.members = new HyperLogLog(precision);
+        }
+
+        void record(long memberId, String itemName) {
+            if (itemName != null) {
+                items.add(itemName);
+            }
+            members.add(memberId);
+        }
+
+        // 한 바퀴 돌아 다시 쓰게 된 구간은 비우고 시작한다
+        void rollTo(long epoch) {
+            if (this.epoch < epoch) {
+                this.epoch = epoch;
+                items.clear();
+                members.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package hello.core.order;
+
+import hello.core.common.SpscRingBuffer;
+import hello.core.discount.DiscountPolicy;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * createOrder 를 회원 조회 -> 할인 계산 -> 주문 생성 단계로 나누고, 단계마다 전용 스레드를 두는 주문 엔진.
+ * 단계 사이는 SpscRingBuffer 로 연결하고 한 번에 여러 건씩 넘기므로, 회원 조회는 배치마다 findAllById 한 번으로 끝난다.
+ * 결과 future 는 마지막 단계 스레드에서 완료되므로, 무거운 후속 작업은 thenApplyAsync 등으로 다른 실행기에 넘겨야 한다.
+ * 단계에서 Error 처럼 주문 하나의 실패로 볼 수 없는 예외가 나면 엔진은 실패 상태가 되고, 처리 중이던 주문은 예외로 완료되며 이후 제출은 거절된다.
+ * 다 쓰면 close 해서 단계 스레드를 멈춘다.
+ */
+public class PipelinedOrderService implements OrderService, AsyncOrderService, AutoCloseable {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final MemberRepository memberRepository;
+    private final DiscountPolicy discountPolicy;
+    private final OrderIdGenerator idGenerator;
+
+    private final SpscRingBuffer<Request> submitted;
+    private final Stage[] stages;
+    private volatile boolean running = true;
+    private volatile Throwable failure;
+
+    public PipelinedOrderService(MemberRepository memberRepository, DiscountPolicy discountPolicy) {
+        this(memberRepository, discountPolicy, 8192);
+    }
+
+    public PipelinedOrderService(MemberRepository memberRepository, DiscountPolicy discountPolicy, int bufferSize) {
+        this(memberRepository, discountPolicy, bufferSize, OrderIdGenerator.shared());
+    }
+
+    public PipelinedOrderService(MemberRepository memberRepository, DiscountPolicy discountPolicy, int bufferSize, OrderIdGenerator idGenerator) {
+        this.memberRepository = memberRepository;
+        this.discountPolicy = discountPolicy;
+        this.idGenerator = idGenerator;
+        this.submitted = new SpscRingBuffer<>(bufferSize);
+        SpscRingBuffer<Request> resolved = new SpscRingBuffer<>(bufferSize);
+        SpscRingBuffer<Request> priced = new SpscRingBuffer<>(bufferSize);
+
+        Stage resolve = new Stage("order-member", null, submitted, resolved, this::resolveMembers);
+        Stage discount = new Stage("order-discount", resolve, resolved, priced, this::applyDiscounts);
+        Stage materialize = new Stage("order-materialize", discount, priced, null, this::materialize);
+        this.stages = new Stage[]{resolve, discount, materialize};
+        for (Stage stage : stages) {
+            stage.start();
+        }
+    }
+
+    @Override
+    public Order createOrder(Long memberId, String itemName, int itemPrice) {
+        return createOrderAsync(memberId, itemName, itemPrice).join();
+    }
+
+    @Override
+    public CompletableFuture<Order> createOrderAsync(Long memberId, String itemName, int itemPrice) {
+        Request request = new Request(memberId, itemName, itemPrice);
+        // 첫 링 버퍼도 쓰는 스레드가 하나여야 하므로 제출은 직렬화한다. 버퍼가 가득 차면 여기서 기다린다(배압)
+        synchronized (submitted) {
+            int idle = 0;
+            while (true) {
+                if (failure != null) {
+                    throw new IllegalStateException("order engine failed", failure);
+                }
+                if (!running) {
+                    throw new IllegalStateException("order engine is closed");
+                }
+                if (submitted.offer(request)) {
+                    return request.future;
+                }
+                idle(++idle);
+            }
+        }
+    }
+
+    // 제출된 주문은 모두 처리한 뒤에 멈춘다
+    @Override
+    public void close() {
+        synchronized (submitted) {
+            running = false;
+        }
+        for (Stage stage : stages) {
+            try {
+                stage.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void resolveMembers(Request[] batch, int count) {
+        long[] memberIds = new long[count];
+        for (int i = 0; i < count; i++) {
+            memberIds[i] = batch[i].memberId;
+        }
+        Member[] members = memberRepository.findAllById(memberIds);
+        for (int i = 0; i < count; i++) {
+            batch[i].member = members[i];
+        }
+    }
+
+    private void applyDiscounts(Request[] batch, int count) {
+        for (int i = 0; i < count; i++) {
+            Request request = batch[i];
+            try {
+                request.discountPrice = discountPolicy.discount(request.member, request.itemPrice);
+            } catch (RuntimeException e) {
+                // 이 주문만의 실패. Error 는 단계로 올려 엔진을 실패시킨다
+                request.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void materialize(Request[] batch, int count) {
+        for (int i = 0; i < count; i++) {
+            Request request = batch[i];
+            if (!request.future.isDone()) {
+                request.future.complete(new Order(idGenerator.nextId(), request.memberId, request.itemName, request.itemPrice, request.discountPrice));
+            }
+        }
+    }
+
+    // 처음 실패 원인만 남긴다. 제출 쪽이 배압으로 submitted 락을 잡은 채 기다릴 수 있으므로 그 락은 잡지 않는다
+    private synchronized void fail(Throwable cause) {
+        if (failure == null) {
+            failure = cause;
+        }
+    }
+
+    // 잠깐은 바쁘게 기다리고, 오래 비면 양보하다가 잠든다
+    private static void idle(int idleCount) {
+        if (idleCount < 100) {
+            Thread.onSpinWait();
+        } else if (idleCount < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    private interface Step {
+        void process(Request[] batch, int count);
+    }
+
+    private final class Stage extends Thread {
+
+        private final Stage upstream;
+        private final SpscRingBuffer<Request> input;
+        private final SpscRingBuffer<Request> output;
+        private final Step step;
+        private final Request[] batch = new Request[BATCH_SIZE];
+
+        Stage(String name, Stage upstream, SpscRingBuffer<Request> input, SpscRingBuffer<Request> output, Step step) {
+            super(name);
+            setDaemon(true);
+            this.upstream = upstream;
+            this.input = input;
+            this.output = output;
+            this.step = step;
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                int count = input.drainTo(batch);
+                if (count == 0) {
+                    if (finished()) {
+                        return;
+                    }
+                    idle(++idle);
+                    continue;
+                }
+                idle = 0;
+
+                // 실패한 뒤에도 close 될 때까지 입력을 비우면서 남은 주문을 예외로 완료한다
+                Throwable failed = failure;
+                if (failed != null) {
+                    failAll(count, new IllegalStateException("order engine failed", failed));
+                    continue;
+                }
+                try {
+                    step.process(batch, count);
+                } catch (Throwable e) {
+                    fail(e);
+                    failAll(count, e);
+                    continue;
+                }
+                if (output != null) {
+                    for (int i = 0; i < count; i++) {
+                        int full = 0;
+                        while (!output.offer(batch[i])) {
+                            idle(++full);
+                        }
+                    }
+                }
+                Arrays.fill(batch, 0, count, null);
+            }
+        }
+
+        private void failAll(int count, Throwable cause) {
+            for (int i = 0; i < count; i++) {
+                batch[i].future.completeExceptionally(cause);
+            }
+            Arrays.fill(batch, 0, count, null);
+        }
+
+        // 앞 단계가 끝났고 입력 버퍼도 비었으면 종료한다
+        private boolean finished() {
+            boolean upstreamDone = upstream == null ? !running : !upstream.isAlive();
+            return upstreamDone && input.size() == 0;
+        }
+    }
+
+    private static final class Request {
+        final long memberId;
+        final String itemName;
+        final int itemPrice;
+        final CompletableFuture<Order> future = new CompletableFuture<>();
+
+        // 단계 사이에는 링 버퍼가 가시성을 보장한다
+        Member member;
+        int discountPrice;
+
+        Request(Long memberId, String itemName, int itemPrice) {
+            this.memberId = memberId;
+            this.itemName = itemName;
+            this.itemPrice = itemPrice;
+        }
+    }
+}
@@ -28,6 +28,8 @@ public class AllBeanTest {
 
         int rateDiscountPrice = discountService.discount(member, 20000, "rateDiscountPolicy");
         assertThat(rateDiscountPrice).isEqualTo(2000);
+
+        assertThat(discountService.discount(member, 20000, "unknownPolicy")).isEqualTo(0);
     }
 
     static class DiscountService {
@@ -44,7 +46,8 @@ public class AllBeanTest {
 
         public int discount(Member member, int price, String discountCode) {
             DiscountPolicy discountPolicy = policyMap.get(discountCode);
-            return discountPolicy.discount(member, price);
+            // 모르는 코드는 할인하지 않는다
+            return discountPolicy == null ? 0 : discountPolicy.discount(member, price);
         }
     }
 }
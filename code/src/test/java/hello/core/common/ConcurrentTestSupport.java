@@ -0,0 +1,59 @@
+package hello.core.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 여러 스레드에서 같은 작업을 동시에 시작시키는 테스트 도우미.
+ * 모든 스레드가 준비된 뒤 한꺼번에 출발하고, 한 스레드라도 예외로 끝나면 그 예외가 호출한 쪽으로 전달된다.
+ */
+public final class ConcurrentTestSupport {
+
+    private ConcurrentTestSupport() {
+    }
+
+    public interface Task {
+        void run(int threadIndex) throws Exception;
+    }
+
+    public interface Call<T> {
+        T call(int threadIndex) throws Exception;
+    }
+
+    public static void runConcurrently(int threads, Task task) throws Exception {
+        callConcurrently(threads, threadIndex -> {
+            task.run(threadIndex);
+            return null;
+        });
+    }
+
+    /**
+     * @return 스레드 번호 순서대로의 결과
+     */
+    public static <T> List<T> callConcurrently(int threads, Call<T> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int threadIndex = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call(threadIndex);
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>(threads);
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
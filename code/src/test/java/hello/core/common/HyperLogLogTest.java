@@ -0,0 +1,48 @@
+package hello.core.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("추정치는 표준 오차의 3배 안에 들어야 한다")
+    void errorBound() {
+        for (long distinct : new long[]{100, 10_000, 1_000_000}) {
+            // given
+            HyperLogLog hll = new HyperLogLog(14);
+
+            // when
+            for (long i = 0; i < distinct; i++) {
+                hll.add(i);
+                hll.add(i); // 중복은 세지 않는다
+            }
+
+            // then
+            double error = Math.abs(hll.estimate() - distinct) / (double) distinct;
+            System.out.println("distinct = " + distinct + ", estimate = " + hll.estimate() + ", error = " + error);
+            assertThat(error).isLessThan(3 * hll.standardError());
+        }
+    }
+
+    @Test
+    @DisplayName("합친 스케치는 합집합의 크기를 추정해야 한다")
+    void merge() {
+        HyperLogLog a = new HyperLogLog(12);
+        HyperLogLog b = new HyperLogLog(12);
+        for (long i = 0; i < 60_000; i++) {
+            a.add(i);
+        }
+        for (long i = 40_000; i < 100_000; i++) {
+            b.add(i);
+        }
+
+        a.merge(b);
+
+        double error = Math.abs(a.estimate() - 100_000) / 100_000.0;
+        assertThat(error).isLessThan(3 * a.standardError());
+        assertThatThrownBy(() -> a.merge(new HyperLogLog(10))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,79 @@
+package hello.core.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    static final int CAPACITY = 100;
+
+    @Test
+    @DisplayName("추정치는 실제 횟수 이상, 실제 횟수 + total / capacity 이하여야 한다")
+    void errorBound() {
+        // given
+        SpaceSaving<String> sketch = new SpaceSaving<>(CAPACITY);
+        Map<String, Long> exact = new HashMap<>();
+
+        // when
+        feed(sketch, exact, new Random(1), 1_000_000);
+
+        // then
+        assertBounds(sketch, exact);
+        List<SpaceSaving.Entry<String>> top = sketch.top(5);
+        System.out.println("top = " + top);
+        assertThat(top.get(0).getItem()).isEqualTo("item0");
+    }
+
+    @Test
+    @DisplayName("합친 스케치도 같은 오차 범위를 지켜야 한다")
+    void merge() {
+        SpaceSaving<String> a = new SpaceSaving<>(CAPACITY);
+        SpaceSaving<String> b = new SpaceSaving<>(CAPACITY);
+        Map<String, Long> exact = new HashMap<>();
+        feed(a, exact, new Random(2), 300_000);
+        feed(b, exact, new Random(3), 500_000);
+
+        a.merge(b);
+
+        assertThat(a.total()).isEqualTo(800_000L);
+        assertBounds(a, exact);
+    }
+
+    // 지프 분포(앞쪽 상품일수록 자주 나옴)로 10,000 종류 상품을 주문한다
+    private static void feed(SpaceSaving<String> sketch, Map<String, Long> exact, Random random, int count) {
+        double[] cumulative = new double[10_000];
+        double sum = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int n = 0; n < count; n++) {
+            double r = random.nextDouble() * sum;
+            int index = Arrays.binarySearch(cumulative, r);
+            String item = "item" + (index < 0 ? -index - 1 : index);
+            sketch.add(item);
+            exact.merge(item, 1L, Long::sum);
+        }
+    }
+
+    private static void assertBounds(SpaceSaving<String> sketch, Map<String, Long> exact) {
+        long maxError = sketch.total() / CAPACITY;
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            assertThat(estimate - entry.getValue()).isLessThanOrEqualTo(maxError);
+            if (entry.getValue() > maxError) {
+                // total / capacity 보다 많이 나온 상품은 반드시 목록에 있어야 한다
+                assertThat(sketch.top(CAPACITY).stream().anyMatch(e -> e.getItem().equals(entry.getKey()))).isTrue();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CompositeDiscountPolicyTest {
+
+    Member vip = new Member(1L, "memberVIP", Grade.VIP);
+    Member basic = new Member(2L, "memberBASIC", Grade.BASIC);
+
+    DiscountPolicy grade = new RateDiscountPolicy();
+    DiscountPolicy coupon = (member, price) -> 1000;
+    DiscountPolicy season = (member, price) -> price * 5 / 100;
+
+    @Test
+    @DisplayName("여러 정책의 할인을 더해야 한다")
+    void stack() {
+        // given
+        CompositeDiscountPolicy discountPolicy = new CompositeDiscountPolicy(Arrays.asList(grade, coupon, season), 30);
+
+        // when
+        int vipDiscount = discountPolicy.discount(vip, 20000);
+        int basicDiscount = discountPolicy.discount(basic, 20000);
+
+        // then
+        assertThat(vipDiscount).isEqualTo(4000);
+        assertThat(basicDiscount).isEqualTo(2000);
+    }
+
+    @Test
+    @DisplayName("상한에 닿으면 남은 정책은 계산하지 않아야 한다")
+    void cap() {
+        // given
+        CompositeDiscountPolicy discountPolicy = new CompositeDiscountPolicy(Arrays.asList(grade, coupon, season), 10, Collections.emptySet(), 1);
+
+        // when
+        int discount = discountPolicy.discount(vip, 20000);
+
+        // then
+        assertThat(discount).isEqualTo(2000);
+        List<CompositeDiscountPolicy.RuleStats> stats = discountPolicy.getStats();
+        assertThat(stats.get(0).getCalls()).isEqualTo(1L);
+        assertThat(stats.get(1).getCalls()).isEqualTo(0L);
+        assertThat(stats.get(2).getCalls()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("상한은 비싼 주문에서도 int 를 넘지 않고 계산해야 한다")
+    void capOnLargePrice() {
+        CompositeDiscountPolicy discountPolicy = new CompositeDiscountPolicy(Arrays.asList(grade, season), 30);
+
+        // 1억 원 x 30 은 int 범위를 넘는다. 할인 합 1000만 + 500만 은 상한 3000만 아래다
+        assertThat(discountPolicy.discount(vip, 100_000_000)).isEqualTo(15_000_000);
+    }
+
+    @Test
+    @DisplayName("exclusive 정책은 다른 할인과 합치지 않고, 더 큰 쪽 하나만 적용되어야 한다")
+    void exclusive() {
+        DiscountPolicy promo = (member, price) -> 3000;
+        CompositeDiscountPolicy discountPolicy = new CompositeDiscountPolicy(
+                Arrays.asList(grade, promo, coupon), 50, Collections.singleton(promo));
+
+        // 일반 할인 합 2000 + 1000 = 3000, 5000 + 1000 = 6000
+        assertThat(discountPolicy.discount(basic, 20000)).isEqualTo(3000);
+        assertThat(discountPolicy.discount(vip, 10000)).isEqualTo(3000);
+        assertThat(discountPolicy.discount(vip, 50000)).isEqualTo(6000);
+        assertThat(discountPolicy.getStats().get(1).isExclusive()).isTrue();
+    }
+
+    @Test
+    @DisplayName("관찰한 적중률과 비용으로 순서를 바꿔도 할인 금액은 같아야 한다")
+    void reorder() {
+        // given: 적중률(100% : 1% : 1%)과 비용(싸다 : 싸다 : 수십 배 비싸다)이 크게 달라 측정 잡음으로는 순서가 바뀌지 않는다
+        DiscountPolicy slowRare = (member, price) -> {
+            long sink = 0;
+            for (int i = 0; i < 20_000; i++) {
+                sink += i * price;
+            }
+            return sink == 42 || member.getId() % 100 == 0 ? 100 : 0;
+        };
+        DiscountPolicy cheapRare = (member, price) -> member.getId() % 100 == 1 ? 100 : 0;
+        // 할인 합이 상한(15%)에 닿지 않으므로 세 규칙 모두 매번 평가된다
+        CompositeDiscountPolicy discountPolicy = new CompositeDiscountPolicy(Arrays.asList(slowRare, cheapRare, coupon), 15, Collections.emptySet(), 1);
+        int[] before = new int[2000];
+        for (int i = 0; i < before.length; i++) {
+            before[i] = discountPolicy.discount(new Member((long) i, "member" + i, i % 2 == 0 ? Grade.VIP : Grade.BASIC), 10000 + i);
+        }
+
+        // when
+        discountPolicy.reorderByObservedSelectivity();
+
+        // then
+        List<CompositeDiscountPolicy.RuleStats> stats = discountPolicy.getStats();
+        System.out.println("stats = " + stats);
+        assertThat(stats.get(0).getPolicy()).isSameAs(coupon);
+        assertThat(stats.get(1).getPolicy()).isSameAs(cheapRare);
+        assertThat(stats.get(2).getPolicy()).isSameAs(slowRare);
+        for (int i = 0; i < before.length; i++) {
+            assertThat(discountPolicy.discount(new Member((long) i, "member" + i, i % 2 == 0 ? Grade.VIP : Grade.BASIC), 10000 + i))
+                    .isEqualTo(before[i]);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("정책 세 개를 묶었을 때의 호출당 비용")
+    void cost() {
+        CompositeDiscountPolicy discountPolicy = new CompositeDiscountPolicy(Arrays.asList(grade, coupon, season), 30);
+        Member[] members = {vip, basic};
+        int calls = 10_000_000;
+
+        long rateNanos = 0;
+        long compositeNanos = 0;
+        long sink = 0;
+        // 처음 몇 번은 JIT 예열
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += grade.discount(members[i & 1], 1000 + (i & 0xFFFF));
+            }
+            rateNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += discountPolicy.discount(members[i & 1], 1000 + (i & 0xFFFF));
+            }
+            compositeNanos = System.nanoTime() - start;
+        }
+
+        System.out.println("RateDiscountPolicy          = " + rateNanos * 1000 / calls / 1000.0 + "ns/call");
+        System.out.println("CompositeDiscountPolicy x 3 = " + compositeNanos * 1000 / calls / 1000.0 + "ns/call");
+        System.out.println("sink = " + sink);
+    }
+}
@@ -0,0 +1,188 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DiscountServiceTest {
+
+    Member member = new Member(1L, "memberVIP", Grade.VIP);
+
+    @Test
+    @DisplayName("주입받은 정책 빈들을 할인 코드(빈 이름)로 골라 적용해야 한다")
+    void findAllBean() {
+        // given
+        ApplicationContext ac = new AnnotationConfigApplicationContext(TestConfig.class);
+        DiscountService discountService = ac.getBean(DiscountService.class);
+
+        // when
+        int fixDiscountPrice = discountService.discount(member, 10000, "fixDiscountPolicy");
+        int rateDiscountPrice = discountService.discount(member, 20000, "rateDiscountPolicy");
+
+        // then
+        assertThat(fixDiscountPrice).isEqualTo(1000);
+        assertThat(rateDiscountPrice).isEqualTo(2000);
+    }
+
+    @Test
+    @DisplayName("미리 구한 핸들로 호출하면 코드로 호출한 것과 같은 결과여야 한다")
+    void handle() {
+        // given
+        DiscountService discountService = new DiscountService(policies());
+
+        // when
+        int handle = discountService.handleOf("rateDiscountPolicy");
+
+        // then
+        assertThat(discountService.codeOf(handle)).isEqualTo("rateDiscountPolicy");
+        assertThat(discountService.discount(member, 20000, handle)).isEqualTo(2000);
+        // 이름 순서로 핸들이 붙는다
+        assertThat(discountService.handleOf("fixDiscountPolicy")).isEqualTo(0);
+        assertThat(handle).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("모르는 코드나 핸들은 fallback 정책으로 계산해야 한다")
+    void unknown() {
+        DiscountService noDiscount = new DiscountService(policies());
+        DiscountService fixFallback = new DiscountService(policies(), new FixDiscountPolicy());
+
+        assertThat(noDiscount.handleOf("unknownPolicy")).isEqualTo(DiscountService.UNKNOWN);
+        assertThat(noDiscount.handleOf(null)).isEqualTo(DiscountService.UNKNOWN);
+        assertThat(noDiscount.discount(member, 20000, "unknownPolicy")).isEqualTo(0);
+        assertThat(noDiscount.discount(member, 20000, 99)).isEqualTo(0);
+        assertThat(fixFallback.discount(member, 20000, "unknownPolicy")).isEqualTo(1000);
+        assertThat(fixFallback.discount(member, 20000, DiscountService.UNKNOWN)).isEqualTo(1000);
+        // discount 가 fallback 으로 계산하는 핸들은 codeOf 도 코드가 없다
+        assertThat(noDiscount.codeOf(DiscountService.UNKNOWN)).isNull();
+        assertThat(noDiscount.codeOf(99)).isNull();
+    }
+
+    @Test
+    @DisplayName("코드가 많아도 모든 코드가 자기 핸들을 찾아야 한다")
+    void manyCodes() {
+        Map<String, DiscountPolicy> policies = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            policies.put("policy" + i, new RateDiscountPolicy(i % 100));
+        }
+        DiscountService discountService = new DiscountService(policies);
+
+        assertThat(discountService.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            String code = "policy" + i;
+            int handle = discountService.handleOf(code);
+            assertThat(discountService.codeOf(handle)).isEqualTo(code);
+            assertThat(discountService.discount(member, 10000, handle)).isEqualTo(10000 * (i % 100) / 100);
+        }
+        assertThat(discountService.handleOf("policy1000")).isEqualTo(DiscountService.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("hashCode 가 같은 코드들도 각자 자기 핸들을 찾아야 한다")
+    void sameHashCode() {
+        // given: "Aa", "BB" 와 이를 이어 붙인 코드들은 모두 hashCode 가 같다
+        Map<String, DiscountPolicy> policies = new HashMap<>();
+        policies.put("Aa", new FixDiscountPolicy());
+        policies.put("BB", new RateDiscountPolicy());
+        policies.put("AaAa", new RateDiscountPolicy(20));
+        policies.put("AaBB", new RateDiscountPolicy(30));
+        policies.put("BBBB", new RateDiscountPolicy(40));
+        policies.put("rateDiscountPolicy", new RateDiscountPolicy());
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+
+        // when
+        DiscountService discountService = new DiscountService(policies);
+
+        // then
+        for (String code : policies.keySet()) {
+            assertThat(discountService.codeOf(discountService.handleOf(code))).isEqualTo(code);
+        }
+        assertThat(discountService.discount(member, 10000, "Aa")).isEqualTo(1000);
+        assertThat(discountService.discount(member, 10000, "BB")).isEqualTo(1000);
+        assertThat(discountService.discount(member, 10000, "BBBB")).isEqualTo(4000);
+        // 같은 칸을 쓰지만 등록되지 않은 코드
+        assertThat(discountService.handleOf("BBAa")).isEqualTo(DiscountService.UNKNOWN);
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Map.get 조회와 비교한 호출당 비용")
+    void cost() {
+        Map<String, DiscountPolicy> policyMap = policies();
+        DiscountService discountService = new DiscountService(policyMap);
+        int handle = discountService.handleOf("rateDiscountPolicy");
+        // 요청마다 새로 만들어지는 문자열이라고 가정한다 (hashCode 캐시 없음)
+        String[] codes = new String[1024];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = new String(i % 2 == 0 ? "rateDiscountPolicy" : "fixDiscountPolicy");
+        }
+        int calls = 10_000_000;
+
+        long mapNanos = 0;
+        long codeNanos = 0;
+        long handleNanos = 0;
+        long sink = 0;
+        // 처음 몇 번은 JIT 예열
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += policyMap.get(codes[i & 1023]).discount(member, 10000);
+            }
+            mapNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += discountService.discount(member, 10000, codes[i & 1023]);
+            }
+            codeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += discountService.discount(member, 10000, handle);
+            }
+            handleNanos = System.nanoTime() - start;
+        }
+
+        System.out.println("Map.get         = " + mapNanos * 1000 / calls / 1000.0 + "ns/call");
+        System.out.println("discount(code)  = " + codeNanos * 1000 / calls / 1000.0 + "ns/call");
+        System.out.println("discount(handle)= " + handleNanos * 1000 / calls / 1000.0 + "ns/call");
+        System.out.println("sink = " + sink);
+    }
+
+    private static Map<String, DiscountPolicy> policies() {
+        Map<String, DiscountPolicy> policies = new HashMap<>();
+        policies.put("rateDiscountPolicy", new RateDiscountPolicy());
+        policies.put("fixDiscountPolicy", new FixDiscountPolicy());
+        return policies;
+    }
+
+    @Configuration
+    static class TestConfig {
+
+        @Bean
+        public DiscountPolicy rateDiscountPolicy() {
+            return new RateDiscountPolicy();
+        }
+
+        @Bean
+        public DiscountPolicy fixDiscountPolicy() {
+            return new FixDiscountPolicy();
+        }
+
+        @Bean
+        public DiscountService discountService(Map<String, DiscountPolicy> policyMap) {
+            return new DiscountService(policyMap);
+        }
+    }
+}
@@ -38,4 +38,17 @@ class RateDiscountPolicyTest {
         // then
         assertThat(discount).isEqualTo(0);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("할인율을 지정하면 그 비율로 할인되어야 한다")
+    void customPercent() {
+        // given
+        Member member = new Member(1L, "memberVIP", Grade.VIP);
+
+        // when
+        int discount = new RateDiscountPolicy(20).discount(member, 10000);
+
+        // then
+        assertThat(discount).isEqualTo(2000);
+    }
+}
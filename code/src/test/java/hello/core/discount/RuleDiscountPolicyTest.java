@@ -0,0 +1,101 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RuleDiscountPolicyTest {
+
+    RuleDiscountPolicy discountPolicy = RuleDiscountPolicy.fromResource("discount-rules.txt");
+
+    @Test
+    @DisplayName("VIP는 50000원 초과면 15%, 아니면 10% 할인이 적용되어야 한다")
+    void vip() {
+        // given
+        Member member = new Member(1L, "memberVIP", Grade.VIP);
+
+        // when
+        int small = discountPolicy.discount(member, 10000);
+        int large = discountPolicy.discount(member, 60000);
+
+        // then
+        assertThat(small).isEqualTo(1000);
+        assertThat(large).isEqualTo(9000);
+    }
+
+    @Test
+    @DisplayName("맞는 규칙이 없으면 할인이 적용되지 않아야 한다")
+    void noRule() {
+        Member member = new Member(2L, "memberBASIC", Grade.BASIC);
+
+        assertThat(discountPolicy.discount(member, 60000)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("위에서부터 처음 맞는 규칙 하나만 적용하고, 고정 금액과 여러 조건을 쓸 수 있어야 한다")
+    void firstMatch() {
+        RuleDiscountPolicy policy = new RuleDiscountPolicy(
+                "# 주석\n" +
+                "grade != VIP and price >= 20000 and price < 100000 -> 500\n" +
+                "\n" +
+                "grade == VIP -> 1000\n" +
+                "price > 0 -> 1%\n");
+        Member vip = new Member(1L, "memberVIP", Grade.VIP);
+        Member basic = new Member(2L, "memberBASIC", Grade.BASIC);
+
+        assertThat(policy.discount(vip, 50000)).isEqualTo(1000);
+        assertThat(policy.discount(basic, 50000)).isEqualTo(500);
+        assertThat(policy.discount(basic, 100000)).isEqualTo(1000);
+        assertThat(policy.discount(basic, 10000)).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("잘못된 규칙은 생성할 때 줄 번호와 함께 실패해야 한다")
+    void invalid() {
+        assertThatThrownBy(() -> new RuleDiscountPolicy("grade == VIP -> 10%\ngrade == GOLD -> 10%"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 2");
+        assertThatThrownBy(() -> new RuleDiscountPolicy("grade > VIP -> 10%"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RuleDiscountPolicy("VIP -> 10%"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("호출당 비용은 RateDiscountPolicy 의 몇 배 안쪽이어야 한다")
+    void cost() {
+        DiscountPolicy rate = new RateDiscountPolicy();
+        Member[] members = {new Member(1L, "memberVIP", Grade.VIP), new Member(2L, "memberBASIC", Grade.BASIC)};
+
+        long rateNanos = Long.MAX_VALUE;
+        long ruleNanos = Long.MAX_VALUE;
+        // 처음 몇 번은 JIT 예열이므로 가장 빠른 회차끼리 비교한다
+        for (int round = 0; round < 10; round++) {
+            rateNanos = Math.min(rateNanos, measure(rate, members));
+            ruleNanos = Math.min(ruleNanos, measure(discountPolicy, members));
+        }
+
+        System.out.println("RateDiscountPolicy = " + rateNanos * 1000 / CALLS / 1000.0 + "ns/call");
+        System.out.println("RuleDiscountPolicy = " + ruleNanos * 1000 / CALLS / 1000.0 + "ns/call");
+        // 측정값은 3배 안팎이다. 공유 CI 의 잡음을 감안해 넉넉하게 잡는다
+        assertThat(ruleNanos).isLessThan(rateNanos * 10);
+    }
+
+    static final int CALLS = 1_000_000;
+
+    // CALLS 번 호출에 걸린 시간
+    private static long measure(DiscountPolicy policy, Member[] members) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            sink += policy.discount(members[i & 1], 1000 + (i & 0xFFFF));
+        }
+        long elapsed = System.nanoTime() - start;
+        // 결과를 써야 JIT 가 호출을 없애지 않는다
+        assertThat(sink).isPositive();
+        return elapsed;
+    }
+}
@@ -0,0 +1,131 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SwitchableDiscountPolicyTest {
+
+    Member vip = new Member(1L, "memberVIP", Grade.VIP);
+    SwitchableDiscountPolicy discountPolicy = new SwitchableDiscountPolicy(new RateDiscountPolicy());
+
+    @Test
+    @DisplayName("swap 하면 다음 호출부터 새 정책이 적용되어야 한다")
+    void swap() {
+        // given
+        assertThat(discountPolicy.discount(vip, 10000)).isEqualTo(1000);
+
+        // when
+        DiscountPolicy previous = discountPolicy.swap(new RateDiscountPolicy(20));
+
+        // then
+        assertThat(previous).isInstanceOf(RateDiscountPolicy.class);
+        assertThat(discountPolicy.discount(vip, 10000)).isEqualTo(2000);
+    }
+
+    @Test
+    @DisplayName("롤아웃 비율만큼의 회원에게만 후보 정책이 적용되고, 같은 회원은 항상 같은 정책이어야 한다")
+    void rollout() {
+        // given
+        discountPolicy.startRollout(new RateDiscountPolicy(20), 30);
+
+        // when
+        int onCandidate = 0;
+        for (long id = 0; id < 10_000; id++) {
+            Member member = new Member(id, "member" + id, Grade.VIP);
+            int discount = discountPolicy.discount(member, 10000);
+            if (discount == 2000) {
+                onCandidate++;
+            }
+            assertThat(discountPolicy.discount(member, 10000)).isEqualTo(discount);
+        }
+
+        // then
+        System.out.println("onCandidate = " + onCandidate);
+        assertThat(onCandidate).isBetween(2700, 3300);
+    }
+
+    @Test
+    @DisplayName("promote 하면 후보 정책이, rollback 하면 기존 정책이 모든 호출에 적용되어야 한다")
+    void promoteAndRollback() {
+        discountPolicy.startRollout(new RateDiscountPolicy(20), 50);
+        discountPolicy.rollback();
+        assertThat(discountPolicy.getCandidate()).isNull();
+        assertThat(discountPolicy.discount(vip, 10000)).isEqualTo(1000);
+
+        discountPolicy.startRollout(new RateDiscountPolicy(20), 0);
+        assertThat(discountPolicy.discount(vip, 10000)).isEqualTo(1000);
+        discountPolicy.setRolloutPercent(100);
+        assertThat(discountPolicy.discount(vip, 10000)).isEqualTo(2000);
+        discountPolicy.promote();
+        assertThat(discountPolicy.getRolloutPercent()).isEqualTo(0);
+        assertThat(discountPolicy.discount(vip, 10000)).isEqualTo(2000);
+
+        assertThatThrownBy(() -> discountPolicy.promote()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> discountPolicy.startRollout(new FixDiscountPolicy(), 101)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("주문 처리 중에 정책을 바꿔도 각 호출은 이전 또는 새 정책 하나의 결과여야 한다")
+    void concurrentSwap() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Future<?>[] readers = new Future[3];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = executor.submit(() -> {
+                while (running.get()) {
+                    int discount = discountPolicy.discount(vip, 10000);
+                    assertThat(discount == 1000 || discount == 2000).isTrue();
+                }
+            });
+        }
+        for (int i = 0; i < 10_000; i++) {
+            discountPolicy.swap(i % 2 == 0 ? new RateDiscountPolicy(20) : new RateDiscountPolicy(10));
+        }
+        running.set(false);
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("감싸서 더해지는 호출당 비용")
+    void cost() {
+        DiscountPolicy rate = new RateDiscountPolicy();
+        Member[] members = {vip, new Member(2L, "memberBASIC", Grade.BASIC)};
+        int calls = 20_000_000;
+
+        long directNanos = 0;
+        long switchableNanos = 0;
+        long sink = 0;
+        // 처음 몇 번은 JIT 예열
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += rate.discount(members[i & 1], 1000 + (i & 0xFFFF));
+            }
+            directNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink += discountPolicy.discount(members[i & 1], 1000 + (i & 0xFFFF));
+            }
+            switchableNanos = System.nanoTime() - start;
+        }
+
+        System.out.println("RateDiscountPolicy         = " + directNanos * 1000 / calls / 1000.0 + "ns/call");
+        System.out.println("SwitchableDiscountPolicy   = " + switchableNanos * 1000 / calls / 1000.0 + "ns/call");
+        System.out.println("sink = " + sink);
+    }
+}
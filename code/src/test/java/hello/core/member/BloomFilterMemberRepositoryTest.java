@@ -0,0 +1,67 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BloomFilterMemberRepositoryTest {
+
+    BloomFilterMemberRepository memberRepository = new BloomFilterMemberRepository(new OpenAddressingMemberRepository(), 10_000, 0.01);
+
+    @Test
+    @DisplayName("저장한 회원은 필터에 걸러지지 않아야 한다")
+    void noFalseNegative() {
+        for (long id = 0; id < 10_000; id++) {
+            memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        for (long id = 0; id < 10_000; id++) {
+            assertThat(memberRepository.findById(id)).isNotNull();
+        }
+        assertThat(memberRepository.falsePositiveCount()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("이미 회원이 있는 저장소를 감싸도 기존 회원이 필터에 걸러지지 않아야 한다")
+    void existingMembers() throws Exception {
+        // given
+        Path file = Files.createTempDirectory("member-log").resolve("members.log");
+        try (FileMemberRepository fileRepository = new FileMemberRepository(file)) {
+            for (long id = 0; id < 1000; id++) {
+                fileRepository.save(new Member(id, "member" + id, Grade.BASIC));
+            }
+        }
+
+        // when
+        try (FileMemberRepository recovered = new FileMemberRepository(file)) {
+            BloomFilterMemberRepository filtered = new BloomFilterMemberRepository(recovered, 10_000, 0.01);
+
+            // then
+            for (long id = 0; id < 1000; id++) {
+                assertThat(filtered.findById(id)).isNotNull();
+            }
+            assertThat(filtered.definiteMissCount()).isEqualTo(0L);
+        }
+    }
+
+    @Test
+    @DisplayName("없는 회원 조회는 대부분 필터에서 끝나고, 오탐률은 설정값 근처여야 한다")
+    void falsePositiveRate() {
+        for (long id = 0; id < 10_000; id++) {
+            memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        for (long id = 1_000_000; id < 1_100_000; id++) {
+            assertThat(memberRepository.findById(id)).isNull();
+        }
+
+        System.out.println("observed = " + memberRepository.observedFalsePositiveRate());
+        System.out.println("expected = " + memberRepository.expectedFalsePositiveRate());
+        assertThat(memberRepository.observedFalsePositiveRate()).isLessThan(0.02);
+        assertThat(memberRepository.definiteMissCount()).isGreaterThan(95_000L);
+    }
+}
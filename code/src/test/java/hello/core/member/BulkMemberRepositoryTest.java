@@ -0,0 +1,97 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BulkMemberRepositoryTest {
+
+    static final int MEMBERS = 100_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("일괄 가입한 회원을 일괄 조회하면 id 순서대로, 없는 id 는 null 로 돌려줘야 한다")
+    void joinAllAndFindMembers() {
+        MemberService memberService = new MemberServiceImpl(new OpenAddressingMemberRepository());
+        memberService.joinAll(members(3));
+
+        Member[] found = memberService.findMembers(new long[]{2L, 99L, 0L});
+
+        assertThat(found[0].getName()).isEqualTo("member2");
+        assertThat(found[1]).isNull();
+        assertThat(found[2].getName()).isEqualTo("member0");
+        assertThat(memberService.findMembers(Arrays.asList(1L, 99L))).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("단건 호출 대비 일괄 호출 속도 비교")
+    void bulkVsSingle() throws Exception {
+        compare("OpenAddressingMemberRepository", OpenAddressingMemberRepository::new);
+        compare("OffHeapMemberRepository", OffHeapMemberRepository::new);
+        compare("FileMemberRepository", () -> {
+            try {
+                return new FileMemberRepository(Files.createTempDirectory(tempDir, "member-log").resolve("members.log"), 1);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private void compare(String name, Supplier<MemberRepository> repositorySupplier) throws Exception {
+        int count = name.startsWith("File") ? 2_000 : MEMBERS;
+        List<Member> members = members(count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+
+        MemberRepository single = repositorySupplier.get();
+        long start = System.nanoTime();
+        for (Member member : members) {
+            single.save(member);
+        }
+        long singleSave = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (long id : ids) {
+            single.findById(id);
+        }
+        long singleFind = System.nanoTime() - start;
+
+        MemberRepository bulk = repositorySupplier.get();
+        start = System.nanoTime();
+        bulk.saveAll(members);
+        long bulkSave = System.nanoTime() - start;
+        start = System.nanoTime();
+        Member[] found = bulk.findAllById(ids);
+        long bulkFind = System.nanoTime() - start;
+
+        assertThat(found[count - 1].getId()).isEqualTo(count - 1L);
+        System.out.println(name + " (" + count + "건) save: " + singleSave / 1000 + "us -> saveAll: " + bulkSave / 1000 + "us"
+                + ", findById: " + singleFind / 1000 + "us -> findAllById: " + bulkFind / 1000 + "us");
+
+        for (MemberRepository repository : Arrays.asList(single, bulk)) {
+            if (repository instanceof AutoCloseable) {
+                ((AutoCloseable) repository).close();
+            }
+        }
+    }
+
+    private static List<Member> members(int count) {
+        List<Member> members = new ArrayList<>(count);
+        for (long id = 0; id < count; id++) {
+            members.add(new Member(id, "member" + id, Grade.BASIC));
+        }
+        return members;
+    }
+}
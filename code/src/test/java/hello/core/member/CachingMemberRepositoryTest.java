@@ -0,0 +1,94 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static hello.core.common.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.*;
+
+class CachingMemberRepositoryTest {
+
+    OpenAddressingMemberRepository origin = new OpenAddressingMemberRepository();
+    CachingMemberRepository memberRepository = new CachingMemberRepository(origin, 100);
+
+    @Test
+    @DisplayName("두 번째 조회부터는 캐시에서 조회해야 한다")
+    void hit() {
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+
+        memberRepository.findById(1L);
+        memberRepository.findById(1L);
+
+        assertThat(memberRepository.missCount()).isEqualTo(1);
+        assertThat(memberRepository.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("save 하면 캐시가 비워져서 새 값을 조회해야 한다")
+    void invalidateOnSave() {
+        memberRepository.save(new Member(1L, "memberA", Grade.BASIC));
+        memberRepository.findById(1L);
+
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+
+        assertThat(memberRepository.findById(1L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(memberRepository.missCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("한 번씩만 조회되는 회원이 쏟아져도 자주 조회되는 회원은 캐시에 남아야 한다")
+    void keepHotMembers() {
+        for (long id = 0; id < 10_000; id++) {
+            origin.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        // 0~49 번 회원을 자주 조회한다
+        for (int round = 0; round < 20; round++) {
+            for (long id = 0; id < 50; id++) {
+                memberRepository.findById(id);
+            }
+        }
+        // 나머지 회원을 한 번씩 훑는다
+        for (long id = 50; id < 10_000; id++) {
+            memberRepository.findById(id);
+        }
+
+        long missesBefore = memberRepository.missCount();
+        for (long id = 0; id < 50; id++) {
+            memberRepository.findById(id);
+        }
+
+        assertThat(memberRepository.missCount() - missesBefore).isLessThanOrEqualTo(1L);
+        assertThat(memberRepository.size()).isLessThanOrEqualTo(100);
+        assertThat(memberRepository.evictionCount()).isGreaterThan(0L);
+        System.out.println("hitRate = " + memberRepository.hitRate());
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 조회하고 저장해도 크기를 넘지 않고, 저장이 끝난 값을 조회해야 한다")
+    void concurrentReadsAndWrites() throws Exception {
+        // given
+        for (long id = 0; id < 1000; id++) {
+            origin.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        int threads = 8;
+        int operations = 200_000;
+
+        // when
+        long start = System.nanoTime();
+        runConcurrently(threads, t -> {
+            for (int i = 0; i < operations; i++) {
+                // 대부분은 자주 쓰는 50명 조회, 가끔 전체에서 조회
+                long id = i % 10 == 0 ? (i * 31L + t) % 1000 : (i + t) % 50;
+                memberRepository.findById(id);
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        memberRepository.save(new Member(7L, "member7", Grade.VIP));
+
+        // then
+        assertThat(memberRepository.size()).isLessThanOrEqualTo(100);
+        assertThat(memberRepository.findById(7L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(memberRepository.hitCount() + memberRepository.missCount()).isEqualTo((long) threads * operations + 1);
+        System.out.println("reads = " + (long) threads * operations * 1_000_000_000L / elapsed + "/s, hitRate = " + memberRepository.hitRate());
+    }
+}
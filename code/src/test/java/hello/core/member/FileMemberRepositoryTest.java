@@ -0,0 +1,87 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FileMemberRepositoryTest {
+
+    @Test
+    @DisplayName("다시 열면 로그를 스캔해서 마지막으로 저장한 상태를 복구해야 한다")
+    void reopen() throws Exception {
+        Path file = Files.createTempDirectory("member-log").resolve("members.log");
+
+        try (FileMemberRepository memberRepository = new FileMemberRepository(file, 10)) {
+            for (long id = 0; id < 1000; id++) {
+                memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+            }
+            memberRepository.save(new Member(7L, "memberSeven", Grade.VIP));
+        }
+
+        try (FileMemberRepository memberRepository = new FileMemberRepository(file)) {
+            assertThat(memberRepository.size()).isEqualTo(1000);
+            assertThat(memberRepository.findById(7L).getName()).isEqualTo("memberSeven");
+            assertThat(memberRepository.findById(7L).getGrade()).isEqualTo(Grade.VIP);
+            assertThat(memberRepository.findById(999L).getName()).isEqualTo("member999");
+        }
+    }
+
+    @Test
+    @DisplayName("기록 도중 끊긴 꼬리 레코드는 버리고, 그 자리부터 이어서 기록해야 한다")
+    void tornTail() throws Exception {
+        Path file = Files.createTempDirectory("member-log").resolve("members.log");
+        try (FileMemberRepository memberRepository = new FileMemberRepository(file)) {
+            memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+            memberRepository.save(new Member(2L, "memberB", Grade.BASIC));
+        }
+
+        // 두 번째 레코드의 이름 일부를 망가뜨린다 (헤더 8 + 본문 13 + "memberA" 7 = 28 바이트 뒤가 두 번째 레코드)
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(28 + 8 + 13 + 3);
+            raf.write('X');
+        }
+
+        try (FileMemberRepository memberRepository = new FileMemberRepository(file)) {
+            assertThat(memberRepository.findById(1L).getName()).isEqualTo("memberA");
+            assertThat(memberRepository.findById(2L)).isNull();
+            memberRepository.save(new Member(3L, "memberC", Grade.BASIC));
+        }
+
+        try (FileMemberRepository memberRepository = new FileMemberRepository(file)) {
+            assertThat(memberRepository.size()).isEqualTo(2);
+            assertThat(memberRepository.findById(3L).getName()).isEqualTo("memberC");
+        }
+    }
+
+    @Test
+    @DisplayName("꼬리 레코드의 길이 필드가 아주 큰 쓰레기 값이어도 복구가 중단되지 않아야 한다")
+    void garbageLength() throws Exception {
+        Path file = Files.createTempDirectory("member-log").resolve("members.log");
+        try (FileMemberRepository memberRepository = new FileMemberRepository(file)) {
+            memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+            memberRepository.save(new Member(2L, "memberB", Grade.BASIC));
+        }
+
+        // 두 번째 레코드의 길이를 0x7FFFFFF0 (리틀 엔디언) 으로 바꾼다
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(28);
+            raf.write(new byte[]{(byte) 0xF0, (byte) 0xFF, (byte) 0xFF, 0x7F});
+        }
+
+        try (FileMemberRepository memberRepository = new FileMemberRepository(file)) {
+            assertThat(memberRepository.findById(1L).getName()).isEqualTo("memberA");
+            assertThat(memberRepository.findById(2L)).isNull();
+            memberRepository.save(new Member(3L, "memberC", Grade.BASIC));
+        }
+
+        try (FileMemberRepository memberRepository = new FileMemberRepository(file)) {
+            assertThat(memberRepository.size()).isEqualTo(2);
+            assertThat(memberRepository.findById(3L).getName()).isEqualTo("memberC");
+        }
+    }
+}
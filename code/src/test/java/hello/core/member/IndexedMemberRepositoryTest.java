@@ -0,0 +1,94 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IndexedMemberRepositoryTest {
+
+    IndexedMemberRepository memberRepository = new IndexedMemberRepository(new OpenAddressingMemberRepository());
+
+    @Test
+    @DisplayName("등급별, 이름 접두사별로 회원을 조회할 수 있어야 한다")
+    void findByIndex() {
+        memberRepository.save(new Member(1L, "kim", Grade.VIP));
+        memberRepository.save(new Member(2L, "kimchi", Grade.BASIC));
+        memberRepository.save(new Member(3L, "lee", Grade.VIP));
+
+        assertThat(ids(memberRepository.findByGrade(Grade.VIP))).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(ids(memberRepository.findByNamePrefix("kim"))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(memberRepository.findByNamePrefix("kimc"))).containsExactly(2L);
+        assertThat(memberRepository.findByNamePrefix("park")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("저장 후 setGrade, setName 으로 바꾼 값이 인덱스에 반영되어야 한다")
+    void followMutation() {
+        Member member = new Member(1L, "kim", Grade.BASIC);
+        memberRepository.save(member);
+
+        member.setGrade(Grade.VIP);
+        member.setName("lee");
+
+        assertThat(ids(memberRepository.findByGrade(Grade.VIP))).containsExactly(1L);
+        assertThat(memberRepository.findByGrade(Grade.BASIC)).isEmpty();
+        assertThat(memberRepository.findByNamePrefix("kim")).isEmpty();
+        assertThat(ids(memberRepository.findByNamePrefix("le"))).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("같은 id 로 다른 객체를 저장하면 이전 객체의 변경은 더 이상 반영되지 않아야 한다")
+    void replaceMember() {
+        Member before = new Member(1L, "kim", Grade.BASIC);
+        memberRepository.save(before);
+        memberRepository.save(new Member(1L, "lee", Grade.BASIC));
+
+        before.setGrade(Grade.VIP);
+        before.setName("park");
+
+        assertThat(memberRepository.findByGrade(Grade.VIP)).isEmpty();
+        assertThat(memberRepository.findByNamePrefix("park")).isEmpty();
+        assertThat(memberRepository.findByNamePrefix("kim")).isEmpty();
+        assertThat(ids(memberRepository.findByNamePrefix("lee"))).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("이미 회원이 있는 저장소를 감싸면 그 회원들도 조회되어야 한다")
+    void existingMembers() {
+        // given
+        MemberRepository delegate = new OpenAddressingMemberRepository();
+        Member existing = new Member(1L, "kim", Grade.VIP);
+        delegate.save(existing);
+        delegate.save(new Member(2L, "lee", Grade.BASIC));
+
+        // when
+        IndexedMemberRepository indexedRepository = new IndexedMemberRepository(delegate);
+        existing.setGrade(Grade.BASIC);
+        indexedRepository.save(new Member(2L, "park", Grade.VIP));
+
+        // then
+        assertThat(ids(indexedRepository.findByGrade(Grade.BASIC))).containsExactly(1L);
+        assertThat(ids(indexedRepository.findByGrade(Grade.VIP))).containsExactly(2L);
+        assertThat(ids(indexedRepository.findByNamePrefix("kim"))).containsExactly(1L);
+        assertThat(indexedRepository.findByNamePrefix("lee")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("한 번에 저장한 묶음 안에 같은 id 가 있으면 마지막 값만 인덱스에 남아야 한다")
+    void saveAllSameId() {
+        memberRepository.saveAll(Arrays.asList(new Member(1L, "kim", Grade.VIP), new Member(1L, "lee", Grade.BASIC)));
+
+        assertThat(memberRepository.findByGrade(Grade.VIP)).isEmpty();
+        assertThat(memberRepository.findByNamePrefix("kim")).isEmpty();
+        assertThat(ids(memberRepository.findByGrade(Grade.BASIC))).containsExactly(1L);
+    }
+
+    private static List<Long> ids(List<Member> members) {
+        return members.stream().map(Member::getId).collect(Collectors.toList());
+    }
+}
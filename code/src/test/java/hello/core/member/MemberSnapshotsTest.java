@@ -0,0 +1,147 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MemberSnapshotsTest {
+
+    @Test
+    @DisplayName("내보낸 스냅샷을 다른 저장소로 가져오면 내용이 같아야 한다")
+    void roundTrip() throws Exception {
+        // given
+        Path file = Files.createTempDirectory("member-snapshot").resolve("members.snapshot");
+        OpenAddressingMemberRepository source = new OpenAddressingMemberRepository();
+        for (long id = -5; id < 10_000; id++) {
+            source.save(new Member(id, "member" + (id % 100), id % 3 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        source.save(new Member(Long.MAX_VALUE, null, null));
+
+        // when
+        int exported = MemberSnapshots.export(source, file);
+        OffHeapMemberRepository target = new OffHeapMemberRepository();
+        int imported = MemberSnapshots.importInto(file, target);
+
+        // then
+        System.out.println("snapshot size = " + Files.size(file) + " bytes");
+        assertThat(exported).isEqualTo(10_006);
+        assertThat(imported).isEqualTo(10_006);
+        assertThat(target.size()).isEqualTo(10_006);
+        assertThat(target.distinctNames()).isEqualTo(105);
+        assertThat(target.findById(-5L).getName()).isEqualTo("member-5");
+        assertThat(target.findById(9_999L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(target.findById(Long.MAX_VALUE).getName()).isNull();
+        assertThat(target.findById(Long.MAX_VALUE).getGrade()).isNull();
+    }
+
+    @Test
+    @DisplayName("가져온 회원들은 같은 이름 객체를 공유해야 한다")
+    void sharedNames() throws Exception {
+        Path file = Files.createTempDirectory("member-snapshot").resolve("members.snapshot");
+        OpenAddressingMemberRepository source = new OpenAddressingMemberRepository();
+        source.save(new Member(1L, "member", Grade.BASIC));
+        source.save(new Member(2L, "member", Grade.VIP));
+        MemberSnapshots.export(source, file);
+
+        OpenAddressingMemberRepository target = new OpenAddressingMemberRepository();
+        MemberSnapshots.importInto(file, target);
+
+        assertThat(target.findById(1L).getName()).isSameAs(target.findById(2L).getName());
+    }
+
+    @Test
+    @DisplayName("감싼 저장소로 가져와도 인덱스, 캐시, 버전이 가져온 값을 따라가야 한다")
+    void importIntoDecorators() throws Exception {
+        // given
+        Path file = Files.createTempDirectory("member-snapshot").resolve("members.snapshot");
+        OpenAddressingMemberRepository source = new OpenAddressingMemberRepository();
+        for (long id = 0; id < 1000; id++) {
+            source.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        MemberSnapshots.export(source, file);
+
+        VersionedMemberRepository versioned = new VersionedMemberRepository();
+        versioned.save(new Member(0L, "old", Grade.BASIC));
+        IndexedMemberRepository indexed = new IndexedMemberRepository(versioned);
+        CachingMemberRepository cached = new CachingMemberRepository(indexed, 100);
+        assertThat(cached.findById(0L).getName()).isEqualTo("old");
+        VersionedMemberRepository.Snapshot before = versioned.openSnapshot();
+
+        // when
+        int imported = MemberSnapshots.importInto(file, cached);
+
+        // then
+        assertThat(imported).isEqualTo(1000);
+        assertThat(cached.findById(0L).getName()).isEqualTo("member0");
+        assertThat(indexed.findByGrade(Grade.VIP)).hasSize(500);
+        assertThat(indexed.findByNamePrefix("old")).isEmpty();
+        assertThat(before.findById(0L).getName()).isEqualTo("old");
+        assertThat(before.findById(1L)).isNull();
+        // 묶음 전체가 한 버전으로 커밋된다
+        assertThat(versioned.committedVersion()).isEqualTo(before.version() + 1);
+        before.close();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("스냅샷 가져오기 vs 회원 한 명씩 join")
+    void benchmark() throws Exception {
+        int count = 500_000;
+        Path file = Files.createTempDirectory("member-snapshot").resolve("members.snapshot");
+        OpenAddressingMemberRepository source = new OpenAddressingMemberRepository(count);
+        for (long id = 0; id < count; id++) {
+            source.save(new Member(id, "member" + (id % 1000), Grade.BASIC));
+        }
+
+        long start = System.nanoTime();
+        MemberSnapshots.export(source, file);
+        long exportMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        MemberService memberService = new MemberServiceImpl(new OpenAddressingMemberRepository());
+        source.forEach(memberService::join);
+        long joinMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 예전 가져오기처럼 블록(4096건)마다 saveAll 로 넣는 경우
+        List<Member> members = new ArrayList<>(count);
+        source.forEach(member -> members.add(new Member(member.getId(), member.getName(), member.getGrade())));
+        Member[] memberArray = members.toArray(new Member[0]);
+        OpenAddressingMemberRepository blockwise = null;
+        OpenAddressingMemberRepository loaded = null;
+        long saveAllMillis = 0;
+        long loadMillis = 0;
+        // 처음 몇 번은 JIT 예열
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            blockwise = new OpenAddressingMemberRepository();
+            for (int from = 0; from < count; from += 4096) {
+                blockwise.saveAll(members.subList(from, Math.min(count, from + 4096)));
+            }
+            saveAllMillis = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            loaded = new OpenAddressingMemberRepository();
+            loaded.load(memberArray);
+            loadMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+
+        start = System.nanoTime();
+        OpenAddressingMemberRepository target = new OpenAddressingMemberRepository();
+        MemberSnapshots.importInto(file, target);
+        long importMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("snapshot size = " + Files.size(file) + " bytes");
+        System.out.println("export = " + exportMillis + "ms, import = " + importMillis + "ms, join one by one = " + joinMillis + "ms");
+        System.out.println("decoded members: saveAll per block = " + saveAllMillis + "ms, load = " + loadMillis + "ms");
+        assertThat(target.size()).isEqualTo(count);
+        assertThat(blockwise.size()).isEqualTo(count);
+        assertThat(loaded.size()).isEqualTo(count);
+    }
+}
@@ -0,0 +1,126 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static hello.core.common.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.*;
+
+class MemoryMemberRepositoryTest {
+
+    static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    static final int OPERATIONS = 200_000;
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 가입해도 회원이 유실되지 않아야 한다")
+    void concurrentJoin() throws Exception {
+        MemberService memberService = new MemberServiceImpl(new MemoryMemberRepository());
+        long base = 1_000_000L;
+        int perThread = 10_000;
+
+        runConcurrently(THREADS, t -> {
+            for (int i = 0; i < perThread; i++) {
+                long id = base + (long) t * perThread + i;
+                memberService.join(new Member(id, "member" + id, Grade.BASIC));
+            }
+        });
+
+        for (long id = base; id < base + (long) THREADS * perThread; id++) {
+            assertThat(memberService.findMember(id)).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("일괄 저장한 회원을 일괄 조회하면 id 순서대로, 없는 id 는 null 로 돌려줘야 한다")
+    void bulk() {
+        // given
+        MemoryMemberRepository memberRepository = new MemoryMemberRepository();
+        long base = 2_000_000L;
+        List<Member> members = new ArrayList<>();
+        for (long id = base; id < base + 1000; id++) {
+            members.add(new Member(id, "member" + id, Grade.BASIC));
+        }
+        members.add(new Member(base, "memberLast", Grade.VIP));
+
+        // when
+        memberRepository.saveAll(members);
+
+        // then
+        Member[] found = memberRepository.findAllById(new long[]{base + 999, base + 1000, base});
+        assertThat(found[0].getName()).isEqualTo("member" + (base + 999));
+        assertThat(found[1]).isNull();
+        assertThat(found[2].getName()).isEqualTo("memberLast");
+        assertThat(memberRepository.findAllById(Arrays.asList(base + 1, base + 1000, base + 2))).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("멀티 스레드 처리량 비교: synchronized HashMap vs MemoryMemberRepository")
+    void throughput() throws Exception {
+        // 기존 HashMap 은 동시 접근 시 깨지므로, 안전하게 비교할 수 있는 synchronized 버전을 기준으로 삼는다
+        MemberRepository lockedRepository = new MemberRepository() {
+            private final Map<Long, Member> store = Collections.synchronizedMap(new HashMap<>());
+
+            @Override
+            public void save(Member member) {
+                store.put(member.getId(), member);
+            }
+
+            @Override
+            public Member findById(Long memberId) {
+                return store.get(memberId);
+            }
+
+            @Override
+            public void load(Member[] members) {
+                synchronized (store) {
+                    for (Member member : members) {
+                        store.put(member.getId(), member);
+                    }
+                }
+            }
+
+            @Override
+            public void forEach(Consumer<? super Member> action) {
+                synchronized (store) {
+                    store.values().forEach(action);
+                }
+            }
+        };
+
+        long locked = measure(lockedRepository);
+        long concurrent = measure(new MemoryMemberRepository());
+
+        System.out.println("threads = " + THREADS);
+        System.out.println("synchronized HashMap ops/s = " + locked);
+        System.out.println("MemoryMemberRepository ops/s = " + concurrent);
+    }
+
+    // 조회 9 : 저장 1 비율로 부하를 준다
+    private long measure(MemberRepository repository) throws Exception {
+        for (long id = 0; id < 10_000; id++) {
+            repository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        long start = System.nanoTime();
+        runConcurrently(THREADS, t -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                long id = (i * 31L + t) % 10_000;
+                if (i % 10 == 0) {
+                    repository.save(new Member(id, "member" + id, Grade.VIP));
+                } else {
+                    repository.findById(id);
+                }
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        return (long) THREADS * OPERATIONS * 1_000_000_000L / elapsed;
+    }
+}
@@ -0,0 +1,54 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OffHeapMemberRepositoryTest {
+
+    OffHeapMemberRepository memberRepository = new OffHeapMemberRepository(16);
+
+    @Test
+    @DisplayName("힙 밖에 저장한 회원을 조회하면 같은 값의 새 Member 가 만들어져야 한다")
+    void saveAndFind() {
+        Member member = new Member(1L, "회원A", Grade.VIP);
+        memberRepository.save(member);
+
+        Member findMember = memberRepository.findById(1L);
+
+        assertThat(findMember).isNotSameAs(member);
+        assertThat(findMember.getId()).isEqualTo(1L);
+        assertThat(findMember.getName()).isEqualTo("회원A");
+        assertThat(findMember.getGrade()).isEqualTo(Grade.VIP);
+        assertThat(memberRepository.findById(2L)).isNull();
+    }
+
+    @Test
+    @DisplayName("같은 이름은 한 번만 저장되어야 한다")
+    void internNames() {
+        for (long id = 0; id < 50_000; id++) {
+            memberRepository.save(new Member(id, "member" + (id % 100), id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+
+        assertThat(memberRepository.size()).isEqualTo(50_000);
+        assertThat(memberRepository.distinctNames()).isEqualTo(100);
+        assertThat(memberRepository.findById(12_345L).getName()).isEqualTo("member45");
+        assertThat(memberRepository.findById(12_345L).getGrade()).isEqualTo(Grade.BASIC);
+    }
+
+    @Test
+    @DisplayName("수정한 회원을 다시 저장하면 기존 레코드를 덮어써야 한다")
+    void overwrite() {
+        memberRepository.save(new Member(1L, "memberA", Grade.BASIC));
+
+        Member member = memberRepository.findById(1L);
+        member.setGrade(Grade.VIP);
+        member.setName(null);
+        memberRepository.save(member);
+
+        assertThat(memberRepository.size()).isEqualTo(1);
+        assertThat(memberRepository.findById(1L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(memberRepository.findById(1L).getName()).isNull();
+    }
+}
@@ -0,0 +1,56 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static hello.core.common.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.*;
+
+class OpenAddressingMemberRepositoryTest {
+
+    OpenAddressingMemberRepository memberRepository = new OpenAddressingMemberRepository();
+
+    @Test
+    @DisplayName("저장한 회원을 long, Long 두 방식으로 모두 조회할 수 있어야 한다")
+    void saveAndFind() {
+        Member member = new Member(1L, "memberA", Grade.VIP);
+        memberRepository.save(member);
+
+        assertThat(memberRepository.findById(1L)).isSameAs(member);
+        assertThat(memberRepository.findById(Long.valueOf(1L))).isSameAs(member);
+        assertThat(memberRepository.findById(2L)).isNull();
+    }
+
+    @Test
+    @DisplayName("같은 id 로 저장하면 덮어쓰고, 테이블이 커져도 모두 조회되어야 한다")
+    void overwriteAndResize() {
+        for (long id = 0; id < 10_000; id++) {
+            memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        Member updated = new Member(0L, "memberZero", Grade.VIP);
+        memberRepository.save(updated);
+
+        assertThat(memberRepository.size()).isEqualTo(10_000);
+        assertThat(memberRepository.findById(0L)).isSameAs(updated);
+        for (long id = 1; id < 10_000; id++) {
+            assertThat(memberRepository.findById(id).getName()).isEqualTo("member" + id);
+        }
+    }
+
+    @Test
+    @DisplayName("동시에 저장하고 조회해도 저장된 회원은 항상 조회되어야 한다")
+    void concurrentSaveAndFind() throws Exception {
+        int perThread = 20_000;
+        runConcurrently(4, t -> {
+            for (int i = 0; i < perThread; i++) {
+                long id = (long) t * perThread + i;
+                memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+                if (memberRepository.findById(id) == null) {
+                    throw new IllegalStateException("lost member " + id);
+                }
+            }
+        });
+
+        assertThat(memberRepository.size()).isEqualTo(4 * perThread);
+    }
+}
@@ -0,0 +1,155 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static hello.core.common.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.*;
+
+class PublishingMemberRepositoryTest {
+
+    MemberChangeStream stream = new MemberChangeStream(1024);
+    PublishingMemberRepository memberRepository = new PublishingMemberRepository(new OpenAddressingMemberRepository(), stream);
+
+    @Test
+    @DisplayName("save 와 저장된 회원의 변경이 순서대로 발행되어야 한다")
+    void publish() {
+        // given
+        MemberChangeStream.Subscription subscription = stream.subscribe(0);
+        Member member = new Member(1L, "memberA", Grade.BASIC);
+
+        // when
+        memberRepository.save(member);
+        member.setGrade(Grade.VIP);
+        member.setName("memberB");
+
+        // then
+        List<MemberChangeEvent> events = subscription.poll(10);
+        events.forEach(System.out::println);
+        assertThat(events).hasSize(3);
+        assertThat(events.get(0).getType()).isEqualTo(MemberChangeEvent.Type.SAVED);
+        assertThat(events.get(1).getType()).isEqualTo(MemberChangeEvent.Type.GRADE_CHANGED);
+        assertThat(events.get(1).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(events.get(2).getName()).isEqualTo("memberB");
+        assertThat(subscription.offset()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("중간 offset 부터 구독할 수 있어야 한다")
+    void subscribeFromOffset() {
+        for (long id = 0; id < 10; id++) {
+            memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        List<MemberChangeEvent> events = stream.subscribe(7).poll(100);
+
+        assertThat(events).hasSize(3);
+        assertThat(events.get(0).getMemberId()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("느린 구독자는 쓰기를 막지 않고 끊겨야 한다")
+    void dropSlowSubscriber() {
+        MemberChangeStream.Subscription slow = stream.subscribe(0);
+        for (long id = 0; id < 5000; id++) {
+            memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        assertThat(slow.poll(10)).isEmpty();
+        assertThat(slow.isDropped()).isTrue();
+
+        MemberChangeStream.Subscription resumed = stream.subscribe(stream.oldestOffset());
+        assertThat(resumed.poll(2000)).hasSize(1024);
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 저장해도 구독자는 빠짐없이 offset 순서대로 받아야 한다")
+    void concurrentPublish() throws Exception {
+        MemberChangeStream bigStream = new MemberChangeStream(1 << 17);
+        PublishingMemberRepository repository = new PublishingMemberRepository(new OpenAddressingMemberRepository(), bigStream);
+        MemberChangeStream.Subscription subscription = bigStream.subscribe(0);
+
+        runConcurrently(4, t -> {
+            for (long i = 0; i < 25_000; i++) {
+                long id = t * 25_000L + i;
+                repository.save(new Member(id, "member" + id, Grade.BASIC));
+            }
+        });
+
+        List<MemberChangeEvent> events = new ArrayList<>();
+        List<MemberChangeEvent> batch;
+        while (!(batch = subscription.poll(4096)).isEmpty()) {
+            events.addAll(batch);
+        }
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            assertThat(events.get(i).getOffset()).isEqualTo((long) i);
+            ids.add(events.get(i).getMemberId());
+        }
+        assertThat(ids).hasSize(100_000);
+    }
+
+    @Test
+    @DisplayName("이벤트는 발행할 때의 값을 담고, 나중에 회원이 바뀌어도 그대로여야 한다")
+    void snapshot() {
+        // given
+        MemberChangeStream.Subscription subscription = stream.subscribe(0);
+        Member member = new Member(1L, "memberA", Grade.BASIC);
+
+        // when
+        memberRepository.save(member);
+        member.setName("memberB");
+        member.setGrade(Grade.VIP);
+
+        // then
+        List<MemberChangeEvent> events = subscription.poll(10);
+        assertThat(events.get(0).getName()).isEqualTo("memberA");
+        assertThat(events.get(0).getGrade()).isEqualTo(Grade.BASIC);
+        assertThat(events.get(1).getName()).isEqualTo("memberB");
+        assertThat(events.get(1).getGrade()).isEqualTo(Grade.BASIC);
+    }
+
+    @Test
+    @DisplayName("같은 id 를 여러 스레드가 저장, 변경해도 id 별 마지막 이벤트는 저장소의 값과 같아야 한다")
+    void sameIdOrder() throws Exception {
+        // given
+        MemberChangeStream bigStream = new MemberChangeStream(1 << 17);
+        OpenAddressingMemberRepository delegate = new OpenAddressingMemberRepository();
+        PublishingMemberRepository repository = new PublishingMemberRepository(delegate, bigStream);
+        MemberChangeStream.Subscription subscription = bigStream.subscribe(0);
+
+        // when
+        runConcurrently(4, t -> {
+            for (int i = 0; i < 5_000; i++) {
+                long id = i % 16;
+                Member member = new Member(id, "member" + t + "-" + i, Grade.BASIC);
+                if (i % 3 == 0) {
+                    repository.saveAll(List.of(member, new Member(id + 16, "member" + t + "-" + i, Grade.VIP)));
+                } else {
+                    repository.save(member);
+                }
+                member.setName("changed" + t + "-" + i);
+            }
+        });
+
+        // then
+        Map<Long, MemberChangeEvent> last = new HashMap<>();
+        List<MemberChangeEvent> batch;
+        while (!(batch = subscription.poll(4096)).isEmpty()) {
+            batch.forEach(event -> last.put(event.getMemberId(), event));
+        }
+        for (Map.Entry<Long, MemberChangeEvent> entry : last.entrySet()) {
+            Member stored = delegate.findById(entry.getKey());
+            assertThat(entry.getValue().getName()).isEqualTo(stored.getName());
+            assertThat(entry.getValue().getGrade()).isEqualTo(stored.getGrade());
+        }
+        assertThat(last).hasSize(32);
+    }
+}
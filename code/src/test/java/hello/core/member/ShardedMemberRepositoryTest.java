@@ -0,0 +1,67 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static hello.core.common.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.*;
+
+class ShardedMemberRepositoryTest {
+
+    ShardedMemberRepository memberRepository = new ShardedMemberRepository(8);
+
+    @Test
+    @DisplayName("회원이 샤드에 고르게 나뉘어 저장되어야 한다")
+    void distribute() {
+        for (long id = 0; id < 100_000; id++) {
+            memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        for (ShardedMemberRepository.ShardStats stats : memberRepository.stats()) {
+            System.out.println(stats);
+        }
+        System.out.println("loadSkew = " + memberRepository.loadSkew());
+        assertThat(memberRepository.loadSkew()).isLessThan(1.3);
+        assertThat(memberRepository.findById(12_345L).getName()).isEqualTo("member12345");
+    }
+
+    @Test
+    @DisplayName("샤드 수를 바꾸는 동안에도 모든 회원이 조회되어야 한다")
+    void resizeOnline() throws Exception {
+        for (long id = 0; id < 50_000; id++) {
+            memberRepository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        AtomicBoolean resizing = new AtomicBoolean(true);
+        runConcurrently(3, t -> {
+            if (t == 0) {
+                memberRepository.resize(12);
+                memberRepository.resize(5);
+                resizing.set(false);
+                return;
+            }
+            long id = t;
+            while (resizing.get()) {
+                id = (id * 31 + 17) % 50_000;
+                if (memberRepository.findById(id) == null) {
+                    throw new IllegalStateException("member " + id + " not found during resize");
+                }
+                if (t == 2) {
+                    memberRepository.save(new Member(id, "updated" + id, Grade.VIP));
+                }
+            }
+        });
+
+        assertThat(memberRepository.shardCount()).isEqualTo(5);
+        int total = 0;
+        for (ShardedMemberRepository.ShardStats stats : memberRepository.stats()) {
+            total += stats.getSize();
+        }
+        assertThat(total).isEqualTo(50_000);
+        for (long id = 0; id < 50_000; id++) {
+            assertThat(memberRepository.findById(id)).isNotNull();
+        }
+    }
+}
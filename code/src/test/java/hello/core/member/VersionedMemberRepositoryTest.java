@@ -0,0 +1,175 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static hello.core.common.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.*;
+
+class VersionedMemberRepositoryTest {
+
+    VersionedMemberRepository memberRepository = new VersionedMemberRepository();
+
+    @Test
+    @DisplayName("조회한 회원은 이후 setGrade 의 영향을 받지 않아야 한다")
+    void readIsolated() {
+        Member member = new Member(1L, "memberA", Grade.BASIC);
+        memberRepository.save(member);
+
+        Member pricing = memberRepository.findById(1L);
+        member.setGrade(Grade.VIP);
+
+        assertThat(pricing.getGrade()).isEqualTo(Grade.BASIC);
+        assertThat(memberRepository.findById(1L).getGrade()).isEqualTo(Grade.VIP);
+    }
+
+    @Test
+    @DisplayName("스냅샷은 열린 시점의 값만 보여줘야 한다")
+    void snapshot() {
+        Member memberA = new Member(1L, "memberA", Grade.BASIC);
+        memberRepository.save(memberA);
+
+        try (VersionedMemberRepository.Snapshot snapshot = memberRepository.openSnapshot()) {
+            memberA.setGrade(Grade.VIP);
+            memberRepository.save(new Member(2L, "memberB", Grade.VIP));
+
+            assertThat(snapshot.findById(1L).getGrade()).isEqualTo(Grade.BASIC);
+            assertThat(snapshot.findById(2L)).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("스냅샷이 모두 닫히면 예전 버전은 다음 쓰기 때 정리되어야 한다")
+    void reclaim() {
+        Member member = new Member(1L, "memberA", Grade.BASIC);
+        memberRepository.save(member);
+
+        VersionedMemberRepository.Snapshot snapshot = memberRepository.openSnapshot();
+        for (int i = 0; i < 10; i++) {
+            member.setGrade(i % 2 == 0 ? Grade.VIP : Grade.BASIC);
+        }
+        assertThat(memberRepository.versionCount(1L)).isEqualTo(11);
+        assertThat(snapshot.findById(1L).getGrade()).isEqualTo(Grade.BASIC);
+
+        snapshot.close();
+        member.setName("memberB");
+
+        assertThat(memberRepository.versionCount(1L)).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("가장 오래된 스냅샷이 닫히면 다시 쓰지 않은 회원의 예전 버전도 정리되어야 한다")
+    void reclaimOnClose() {
+        // given
+        Member[] members = new Member[100];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new Member((long) i, "member" + i, Grade.BASIC);
+            memberRepository.save(members[i]);
+        }
+        VersionedMemberRepository.Snapshot older = memberRepository.openSnapshot();
+        for (Member member : members) {
+            member.setGrade(Grade.VIP);
+        }
+        VersionedMemberRepository.Snapshot newer = memberRepository.openSnapshot();
+        for (Member member : members) {
+            member.setName(member.getName() + "'");
+        }
+
+        // when
+        newer.close();
+        long keptWhileOlderOpen = memberRepository.versionCount(0L);
+        older.close();
+
+        // then
+        assertThat(keptWhileOlderOpen).isEqualTo(3);
+        for (Member member : members) {
+            assertThat(memberRepository.versionCount(member.getId())).isEqualTo(1);
+        }
+        assertThat(memberRepository.findById(0L).getName()).isEqualTo("member0'");
+    }
+
+    @Test
+    @DisplayName("읽기/쓰기 혼합 부하 처리량 비교: ReadWriteLock 저장소 vs 다중 버전 저장소")
+    void mixedWorkload() throws Exception {
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        Map<Long, Member> lockedStore = new HashMap<>();
+        Member[] members = new Member[1000];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new Member((long) i, "member" + i, Grade.BASIC);
+            memberRepository.save(members[i]);
+            lockedStore.put((long) i, new Member((long) i, "member" + i, Grade.BASIC));
+        }
+
+        long locked = measure(
+                id -> {
+                    lock.readLock().lock();
+                    try {
+                        return lockedStore.get(id).getGrade();
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                },
+                id -> {
+                    lock.writeLock().lock();
+                    try {
+                        Member member = lockedStore.get(id);
+                        member.setGrade(member.getGrade() == Grade.VIP ? Grade.BASIC : Grade.VIP);
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                });
+        long versioned = measure(
+                id -> memberRepository.findById(id).getGrade(),
+                id -> {
+                    Member member = members[(int) (long) id];
+                    member.setGrade(member.getGrade() == Grade.VIP ? Grade.BASIC : Grade.VIP);
+                });
+
+        System.out.println("ReadWriteLock reads/s = " + locked);
+        System.out.println("VersionedMemberRepository reads/s = " + versioned);
+        assertThat(memberRepository.versionCount(0L)).isLessThanOrEqualTo(2);
+    }
+
+    interface Read {
+        Grade read(Long id);
+    }
+
+    interface Write {
+        void write(Long id);
+    }
+
+    // 읽기 스레드 3개, 쓰기 스레드 1개를 돌리고 초당 읽기 수를 잰다
+    private long measure(Read read, Write write) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        long start = System.nanoTime();
+        runConcurrently(4, t -> {
+            long id = t;
+            long count = 0;
+            while (count < 300_000) {
+                id = (id * 31 + 7) % 1000;
+                if (t == 0) {
+                    write.write(id);
+                    if (!running.get()) {
+                        break;
+                    }
+                } else {
+                    read.read(id);
+                    count++;
+                }
+            }
+            if (t != 0) {
+                reads.add(count);
+                running.set(false);
+            }
+        });
+        return reads.sum() * 1_000_000_000L / (System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,133 @@
+package hello.core.order;
+
+import hello.core.common.AsyncExecutors;
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.OpenAddressingMemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AsyncOrderServiceTest {
+
+    static final int REQUESTS = 2_000;
+
+    // 조회마다 1ms 가 걸리는 느린 저장소
+    static class SlowMemberRepository extends OpenAddressingMemberRepository {
+        @Override
+        public Member findById(long memberId) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.findById(memberId);
+        }
+    }
+
+    @Test
+    @DisplayName("비동기 주문은 동기 주문과 같은 결과를 돌려줘야 한다")
+    void createOrderAsync() throws Exception {
+        MemberRepository memberRepository = new OpenAddressingMemberRepository();
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+        ExecutorService executor = AsyncExecutors.create();
+        AsyncOrderService asyncOrderService = new AsyncOrderServiceImpl(new OrderServiceImpl(memberRepository, new RateDiscountPolicy()), executor);
+
+        Order order = asyncOrderService.createOrderAsync(1L, "itemA", 10000).get(1, TimeUnit.SECONDS);
+
+        assertThat(order.getDiscountPrice()).isEqualTo(1000);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("느린 저장소에서 동기(스레드 16개) vs 비동기 처리량, p99 지연 비교")
+    void throughputAndLatency() throws Exception {
+        MemberRepository memberRepository = new SlowMemberRepository();
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+        OrderService orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+
+        // 동기: 요청당 플랫폼 스레드 하나를 점유하는 16개짜리 풀
+        ExecutorService platformThreads = Executors.newFixedThreadPool(16);
+        long[] syncLatencies = new long[REQUESTS];
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            int index = i;
+            long submitted = System.nanoTime();
+            futures.add(platformThreads.submit(() -> {
+                orderService.createOrder(1L, "itemA", 10000);
+                syncLatencies[index] = System.nanoTime() - submitted;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long syncElapsed = System.nanoTime() - start;
+        platformThreads.shutdown();
+
+        // 비동기: 실제 서비스가 쓰는 기본 실행기 (가상 스레드, 지원하지 않으면 블로킹용 풀)
+        ExecutorService executor = AsyncExecutors.create();
+        String mode = executor.getClass().getSimpleName();
+        AsyncOrderService asyncOrderService = new AsyncOrderServiceImpl(orderService, executor);
+        long[] asyncLatencies = new long[REQUESTS];
+        start = System.nanoTime();
+        CompletableFuture<?>[] orders = new CompletableFuture<?>[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            int index = i;
+            long submitted = System.nanoTime();
+            orders[i] = asyncOrderService.createOrderAsync(1L, "itemA", 10000)
+                    .thenRun(() -> asyncLatencies[index] = System.nanoTime() - submitted);
+        }
+        CompletableFuture.allOf(orders).get();
+        long asyncElapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        System.out.println("sync  : " + REQUESTS * 1_000_000_000L / syncElapsed + " orders/s, p99 = " + p99(syncLatencies) / 1000 + "us");
+        System.out.println("async : " + REQUESTS * 1_000_000_000L / asyncElapsed + " orders/s, p99 = " + p99(asyncLatencies) / 1000 + "us (" + mode + ")");
+    }
+
+    @Test
+    @DisplayName("기본 실행기는 CPU 수보다 많은 블로킹 작업이 서로를 기다려도 모두 진행시켜야 한다")
+    void blockingTasks() throws Exception {
+        // given
+        ExecutorService executor = AsyncExecutors.create();
+        int tasks = Runtime.getRuntime().availableProcessors() * 8;
+        CountDownLatch arrived = new CountDownLatch(tasks);
+
+        // when: 모든 작업이 동시에 실행 중이어야만 끝날 수 있다
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+        for (int i = 0; i < tasks; i++) {
+            futures[i] = CompletableFuture.runAsync(() -> {
+                arrived.countDown();
+                try {
+                    arrived.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, executor);
+        }
+
+        // then
+        CompletableFuture.allOf(futures).get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    private static long p99(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) (sorted.length * 0.99) - 1];
+    }
+}
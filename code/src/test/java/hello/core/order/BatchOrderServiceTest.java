@@ -0,0 +1,117 @@
+package hello.core.order;
+
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.OpenAddressingMemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BatchOrderServiceTest {
+
+    CountingMemberRepository memberRepository = new CountingMemberRepository();
+    OrderService orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+
+    @BeforeEach
+    void beforeEach() {
+        for (long id = 0; id < 100; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+    }
+
+    @Test
+    @DisplayName("일괄 주문 결과는 한 건씩 주문한 결과와 같아야 한다")
+    void sameAsCreateOrder() {
+        // given
+        List<OrderLine> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            lines.add(new OrderLine((long) (i % 7), "item" + i, 1000 + i));
+        }
+
+        // when
+        OrderBatch batch = orderService.createOrders(lines);
+
+        // then
+        assertThat(batch.size()).isEqualTo(1000);
+        long total = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            Order order = orderService.createOrder(line.getMemberId(), line.getItemName(), line.getItemPrice());
+            assertThat(batch.getMemberId(i)).isEqualTo(line.getMemberId().longValue());
+            assertThat(batch.getItemName(i)).isEqualTo(line.getItemName());
+            assertThat(batch.getDiscountPrice(i)).isEqualTo(order.getDiscountPrice());
+            total += order.calculatePrice();
+        }
+        assertThat(batch.totalPrice()).isEqualTo(total);
+        System.out.println("batch.toOrder(0) = " + batch.toOrder(0));
+    }
+
+    @Test
+    @DisplayName("같은 회원의 주문이 여러 줄이어도 회원은 한 번만 조회해야 한다")
+    void resolveMemberOnce() {
+        List<OrderLine> lines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            lines.add(new OrderLine(i < 300 ? 1L : 2L, "item" + i, 10000));
+        }
+
+        memberRepository.lookups = 0;
+        OrderBatch batch = orderService.createOrders(lines);
+
+        assertThat(memberRepository.lookups).isEqualTo(2);
+        assertThat(batch.getDiscountPrice(0)).isEqualTo(0);
+        assertThat(batch.getDiscountPrice(499)).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("일괄 주문 처리량 비교: createOrder 반복 vs createOrders")
+    void benchmark() {
+        List<OrderLine> lines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            lines.add(new OrderLine((long) (i / 100), "item" + i, 10000 + i));
+        }
+
+        long single = 0;
+        long batched = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int n = 0; n < 1000; n++) {
+                for (OrderLine line : lines) {
+                    orderService.createOrder(line.getMemberId(), line.getItemName(), line.getItemPrice());
+                }
+            }
+            single = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int n = 0; n < 1000; n++) {
+                orderService.createOrders(lines);
+            }
+            batched = System.nanoTime() - start;
+        }
+
+        System.out.println("createOrder x 500 lines = " + single / 1000 / 1000 + "us per batch");
+        System.out.println("createOrders (500 lines) = " + batched / 1000 / 1000 + "us per batch");
+    }
+
+    // 회원 조회 횟수를 센다
+    static class CountingMemberRepository extends OpenAddressingMemberRepository {
+        int lookups;
+
+        @Override
+        public Member findById(long memberId) {
+            lookups++;
+            return super.findById(memberId);
+        }
+
+        @Override
+        public Member[] findAllById(long[] memberIds) {
+            lookups += memberIds.length;
+            return super.findAllById(memberIds);
+        }
+    }
+}
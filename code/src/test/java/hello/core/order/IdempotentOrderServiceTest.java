@@ -0,0 +1,194 @@
+package hello.core.order;
+
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.OpenAddressingMemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static hello.core.common.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.*;
+
+class IdempotentOrderServiceTest {
+
+    AtomicLong now = new AtomicLong(1_000_000);
+    CountingOrderService orderService = new CountingOrderService(members());
+    IdempotentOrderServiceImpl idempotentOrderService = new IdempotentOrderServiceImpl(orderService, 60_000, 10_000, now::get);
+
+    static MemberRepository members() {
+        MemberRepository memberRepository = new OpenAddressingMemberRepository();
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+        return memberRepository;
+    }
+
+    // 실제로 주문을 만든 횟수를 센다
+    static class CountingOrderService extends OrderServiceImpl {
+        final AtomicInteger created = new AtomicInteger();
+
+        CountingOrderService(MemberRepository memberRepository) {
+            super(memberRepository, new RateDiscountPolicy());
+        }
+
+        @Override
+        public Order createOrder(Long memberId, String itemName, int itemPrice) {
+            created.incrementAndGet();
+            return super.createOrder(memberId, itemName, itemPrice);
+        }
+    }
+
+    @Test
+    @DisplayName("같은 키로 재시도하면 처음 만든 주문을 그대로 돌려줘야 한다")
+    void retry() {
+        // given
+        Order first = idempotentOrderService.createOrder("key-1", 1L, "itemA", 10000);
+
+        // when
+        Order retried = idempotentOrderService.createOrder("key-1", 1L, "itemA", 10000);
+
+        // then
+        assertThat(retried).isSameAs(first);
+        assertThat(orderService.created.get()).isEqualTo(1);
+        assertThatThrownBy(() -> idempotentOrderService.createOrder("key-1", 1L, "itemB", 10000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("동시에 도착한 재시도도 주문은 한 번만 만들어야 한다")
+    void concurrentRetries() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return idempotentOrderService.createOrder("key-1", 1L, "itemA", 10000);
+            }));
+        }
+        start.countDown();
+
+        Order first = futures.get(0).get();
+        for (Future<Order> future : futures) {
+            assertThat(future.get()).isSameAs(first);
+        }
+        assertThat(orderService.created.get()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("시간 창이 지나면 키는 만료되고, 키 수는 maxEntries 를 넘지 않아야 한다")
+    void expiryAndBound() {
+        idempotentOrderService.createOrder("key-1", 1L, "itemA", 10000);
+        now.addAndGet(61_000);
+        idempotentOrderService.createOrder("key-1", 1L, "itemA", 10000);
+        assertThat(orderService.created.get()).isEqualTo(2);
+
+        for (int i = 0; i < 30_000; i++) {
+            now.incrementAndGet();
+            idempotentOrderService.createOrder("bulk-" + i, 1L, "itemA", 10000);
+        }
+        assertThat(idempotentOrderService.size()).isLessThanOrEqualTo(10_000);
+
+        now.addAndGet(61_000);
+        idempotentOrderService.createOrder("last", 1L, "itemA", 10000);
+        assertThat(idempotentOrderService.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("실패한 주문은 기억하지 않아야 한다")
+    void failure() {
+        assertThatThrownBy(() -> idempotentOrderService.createOrder("key-1", 99L, "itemA", 10000))
+                .isInstanceOf(NullPointerException.class);
+        assertThat(idempotentOrderService.size()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("주문 중에 Error 가 나도 키를 기억하지 않고, 같은 키로 기다리던 요청도 끝나야 한다")
+    void error() throws Exception {
+        // given
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean broken = new AtomicBoolean(true);
+        CountingOrderService failing = new CountingOrderService(members()) {
+            @Override
+            public Order createOrder(Long memberId, String itemName, int itemPrice) {
+                if (broken.get()) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    throw new StackOverflowError("broken order service");
+                }
+                return super.createOrder(memberId, itemName, itemPrice);
+            }
+        };
+        IdempotentOrderServiceImpl service = new IdempotentOrderServiceImpl(failing, 60_000, 10_000, now::get);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // when
+        Future<Order> first = executor.submit(() -> service.createOrder("key-1", 1L, "itemA", 10000));
+        entered.await();
+        Future<Order> waiting = executor.submit(() -> service.createOrder("key-1", 1L, "itemA", 10000));
+        release.countDown();
+
+        // then
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(service.size()).isEqualTo(0);
+        broken.set(false);
+        assertThat(service.createOrder("key-1", 1L, "itemA", 10000).getDiscountPrice()).isEqualTo(1000);
+        executor.shutdown();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("멱등 키 확인이 더하는 시간")
+    void overhead() throws Exception {
+        IdempotentOrderServiceImpl service = new IdempotentOrderServiceImpl(orderService, 60_000, 1_000_000, System::currentTimeMillis);
+        int threads = 8;
+        int perThread = 100_000;
+
+        long direct = 0;
+        long idempotent = 0;
+        // 처음 몇 번은 JIT 예열
+        for (int round = 0; round < 3; round++) {
+            int base = round * perThread;
+            direct = measure(threads, perThread, (t, i) -> orderService.createOrder(1L, "itemA", 10000));
+            idempotent = measure(threads, perThread, (t, i) -> service.createOrder(t + "-" + (base + i % 50_000), 1L, "itemA", 10000));
+        }
+
+        System.out.println("createOrder            = " + direct + "ns/op");
+        System.out.println("idempotent createOrder = " + idempotent + "ns/op (half of the calls are retries)");
+    }
+
+    interface Call {
+        void call(int threadIndex, int i);
+    }
+
+    // 전체 경과 시간 / 전체 호출 수
+    private static long measure(int threads, int perThread, Call call) throws Exception {
+        long start = System.nanoTime();
+        runConcurrently(threads, t -> {
+            for (int i = 0; i < perThread; i++) {
+                call.call(t, i);
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        return elapsed / ((long) threads * perThread);
+    }
+}
@@ -0,0 +1,132 @@
+package hello.core.order;
+
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.OpenAddressingMemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderAnalyticsTest {
+
+    OrderAnalytics analytics = new OrderAnalytics();
+    MemberRepository memberRepository = new OpenAddressingMemberRepository();
+    OrderService orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy(), Collections.singletonList(analytics));
+
+    @Test
+    @DisplayName("주문이 만들어질 때마다 회원별 합계와 상품별 매출이 갱신되어야 한다")
+    void aggregate() {
+        // given
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+        memberRepository.save(new Member(2L, "memberB", Grade.BASIC));
+
+        // when
+        orderService.createOrder(1L, "itemA", 10000);
+        orderService.createOrder(1L, "itemB", 20000);
+        orderService.createOrder(2L, "itemA", 10000);
+        orderService.createOrders(List.of(new OrderLine(2L, "itemB", 5000), new OrderLine(1L, "itemA", 1000)));
+
+        // then
+        assertThat(analytics.memberTotal(1L)).isEqualTo(9000L + 18000 + 900);
+        assertThat(analytics.memberTotal(2L)).isEqualTo(15000L);
+        assertThat(analytics.memberTotal(3L)).isEqualTo(0L);
+        assertThat(analytics.itemRevenue("itemA")).isEqualTo(9000L + 10000 + 900);
+        assertThat(analytics.totalRevenue()).isEqualTo(42900L);
+        System.out.println("memberTotals = " + analytics.memberTotals());
+        System.out.println("itemRevenues = " + analytics.itemRevenues());
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 주문하는 동안 조회해도 합계가 맞아야 한다")
+    void concurrentUpdatesAndReads() throws Exception {
+        int threads = 4;
+        int ordersPerThread = 250_000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < ordersPerThread; i++) {
+                    analytics.orderCreated(new Order((long) (i % 10_000), "item" + (i % 50), 100, 0));
+                }
+            }));
+        }
+        Future<Long> reader = executor.submit(() -> {
+            long reads = 0;
+            while (writing.get()) {
+                analytics.memberTotal(reads % 10_000);
+                if (reads % 10_000 == 0) {
+                    analytics.memberTotals();
+                }
+                reads++;
+            }
+            return reads;
+        });
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        writing.set(false);
+        long reads = reader.get();
+        executor.shutdown();
+
+        System.out.println("updates = " + (long) threads * ordersPerThread * 1_000_000_000L / elapsed + " orders/s, concurrent reads = " + reads);
+        Map<Long, Long> totals = analytics.memberTotals();
+        assertThat(totals).hasSize(10_000);
+        assertThat(totals.get(7L)).isEqualTo(100L * threads * ordersPerThread / 10_000);
+        assertThat(analytics.totalRevenue()).isEqualTo(100L * threads * ordersPerThread);
+        assertThat(analytics.itemRevenue("item0")).isEqualTo(100L * threads * ordersPerThread / 50);
+    }
+
+    @Test
+    @DisplayName("큰 조각에 쓰기가 끊이지 않아도 전체 복사는 끝나야 한다")
+    void snapshotUnderConstantWrites() throws Exception {
+        // given: 조각 하나에 회원 20만 명
+        OrderAnalytics analytics = new OrderAnalytics(1);
+        int members = 200_000;
+        for (long id = 0; id < members; id++) {
+            analytics.orderCreated(new Order(id, "itemA", 100, 0));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        for (int t = 0; t < 2; t++) {
+            executor.submit(() -> {
+                for (long i = 0; writing.get(); i++) {
+                    analytics.orderCreated(new Order(i % members, "itemA", 100, 0));
+                }
+            });
+        }
+
+        // when
+        Future<Integer> reader = executor.submit(() -> {
+            int smallest = Integer.MAX_VALUE;
+            for (int i = 0; i < 20; i++) {
+                smallest = Math.min(smallest, analytics.memberTotals().size());
+            }
+            return smallest;
+        });
+
+        // then
+        try {
+            assertThat(reader.get(30, TimeUnit.SECONDS)).isEqualTo(members);
+        } finally {
+            writing.set(false);
+            executor.shutdown();
+        }
+    }
+}
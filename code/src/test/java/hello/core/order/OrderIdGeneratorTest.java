@@ -0,0 +1,165 @@
+package hello.core.order;
+
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.OpenAddressingMemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static hello.core.common.ConcurrentTestSupport.callConcurrently;
+import static org.assertj.core.api.Assertions.*;
+
+class OrderIdGeneratorTest {
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 만들어도 id 가 겹치지 않고, 스레드 안에서는 증가해야 한다")
+    void unique() throws Exception {
+        // given
+        OrderIdGenerator generator = new OrderIdGenerator(7);
+        int threads = 8;
+        int perThread = 50_000;
+
+        // when
+        List<long[]> results = callConcurrently(threads, t -> {
+            long[] ids = new long[perThread];
+            for (int i = 0; i < perThread; i++) {
+                ids[i] = generator.nextId();
+            }
+            return ids;
+        });
+
+        // then
+        Set<Long> all = new HashSet<>();
+        for (long[] ids : results) {
+            for (int i = 0; i < ids.length; i++) {
+                assertThat(all.add(ids[i])).isTrue();
+                if (i > 0) {
+                    assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                }
+            }
+        }
+        assertThat(all).hasSize(threads * perThread);
+        assertThat(OrderIdGenerator.nodeOf(results.get(0)[0])).isEqualTo(7);
+        assertThat(OrderIdGenerator.timestampOf(results.get(0)[0])).isBetween(System.currentTimeMillis() - 60_000, System.currentTimeMillis());
+    }
+
+    @Test
+    @DisplayName("시계가 뒤로 가거나 같은 ms 에 sequence 가 넘쳐도 id 는 계속 증가해야 한다")
+    void clockRegression() {
+        // given
+        AtomicLong now = new AtomicLong(OrderIdGenerator.EPOCH + 1_000_000);
+        OrderIdGenerator generator = new OrderIdGenerator(0, now::get);
+        long first = generator.nextId();
+
+        // when
+        now.addAndGet(-5_000);
+        long afterRegression = generator.nextId();
+        long last = afterRegression;
+        for (int i = 0; i < 3000; i++) {
+            last = generator.nextId();
+        }
+
+        // then
+        assertThat(afterRegression).isGreaterThan(first);
+        assertThat(OrderIdGenerator.timestampOf(afterRegression)).isEqualTo(OrderIdGenerator.timestampOf(first));
+        // 1024 개를 넘게 만들었으므로 논리 timestamp 가 시계보다 앞서 나간다
+        assertThat(OrderIdGenerator.timestampOf(last)).isGreaterThan(OrderIdGenerator.timestampOf(first));
+        assertThat(last).isGreaterThan(afterRegression);
+    }
+
+    @Test
+    @DisplayName("주문을 만들면 id 가 붙어야 한다")
+    void orderId() {
+        MemberRepository memberRepository = new OpenAddressingMemberRepository();
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+        OrderService orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+
+        Order order = orderService.createOrder(1L, "itemA", 10000);
+        OrderBatch batch = orderService.createOrders(Arrays.asList(new OrderLine(1L, "itemA", 10000), new OrderLine(1L, "itemB", 20000)));
+
+        assertThat(order.getId()).isNotNull();
+        assertThat(batch.getOrderId(0)).isGreaterThan(order.getId());
+        assertThat(batch.getOrderId(1)).isGreaterThan(batch.getOrderId(0));
+        assertThat(batch.toOrder(1).getId()).isEqualTo(batch.getOrderId(1));
+    }
+
+    @Test
+    @DisplayName("한 프로세스의 주문 서비스 둘이 동시에 주문해도 id 가 겹치지 않아야 한다")
+    void twoServices() throws Exception {
+        // given: 둘 다 기본 생성자로 만든다
+        MemberRepository memberRepository = new OpenAddressingMemberRepository();
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+        OrderService orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+        int threads = 4;
+        int perThread = 20_000;
+
+        try (PipelinedOrderService pipelinedOrderService = new PipelinedOrderService(memberRepository, new RateDiscountPolicy())) {
+            // when
+            List<long[]> results = callConcurrently(threads, t -> {
+                OrderService service = t % 2 == 0 ? orderService : pipelinedOrderService;
+                long[] ids = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = service.createOrder(1L, "itemA", 10000).getId();
+                }
+                return ids;
+            });
+
+            // then
+            Set<Long> all = new HashSet<>();
+            for (long[] ids : results) {
+                for (long id : ids) {
+                    all.add(id);
+                }
+            }
+            assertThat(all).hasSize(threads * perThread);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("스레드 수별 id 생성 처리량 (공유 AtomicLong 과 비교)")
+    void contention() throws Exception {
+        OrderIdGenerator generator = new OrderIdGenerator(0);
+        AtomicLong shared = new AtomicLong();
+        int perThread = 1_000_000;
+
+        for (int threads : new int[]{1, 2, 4, 8, 16}) {
+            long striped = 0;
+            long atomic = 0;
+            // 처음 몇 번은 JIT 예열
+            for (int round = 0; round < 3; round++) {
+                striped = measure(threads, perThread, generator::nextId);
+                atomic = measure(threads, perThread, shared::incrementAndGet);
+            }
+            System.out.println("threads=" + threads + " OrderIdGenerator=" + striped + "ns/id, shared AtomicLong=" + atomic + "ns/id");
+        }
+    }
+
+    interface Next {
+        long next();
+    }
+
+    // 전체 경과 시간 / 전체 생성 수
+    private static long measure(int threads, int perThread, Next next) throws Exception {
+        long start = System.nanoTime();
+        List<long[]> sinks = callConcurrently(threads, t -> {
+            long sink = 0;
+            for (int i = 0; i < perThread; i++) {
+                sink ^= next.next();
+            }
+            return new long[]{sink};
+        });
+        long elapsed = System.nanoTime() - start;
+        assertThat(sinks).hasSize(threads);
+        return elapsed / ((long) threads * perThread);
+    }
+}
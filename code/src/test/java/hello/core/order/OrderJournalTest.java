@@ -0,0 +1,219 @@
+package hello.core.order;
+
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.OpenAddressingMemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static hello.core.common.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.*;
+
+class OrderJournalTest {
+
+    MemberRepository memberRepository = new OpenAddressingMemberRepository();
+
+    @Test
+    @DisplayName("저널에 기록한 주문을 replay 하면 같은 순서로 다시 읽어야 한다")
+    void replay() throws Exception {
+        // given
+        Path file = Files.createTempDirectory("order-journal").resolve("orders.journal");
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+        try (OrderJournal journal = new OrderJournal(file, OrderJournal.Durability.GROUP)) {
+            OrderService orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy(), Collections.singletonList(journal));
+
+            // when
+            orderService.createOrder(1L, "itemA", 10000);
+            orderService.createOrder(1L, "아이템B", 20000);
+        }
+
+        // then
+        List<Order> orders = new ArrayList<>();
+        OrderJournal.replay(file, orders::add);
+        System.out.println("orders = " + orders);
+        assertThat(orders).hasSize(2);
+        assertThat(orders.get(0).getDiscountPrice()).isEqualTo(1000);
+        assertThat(orders.get(1).getItemName()).isEqualTo("아이템B");
+    }
+
+    @Test
+    @DisplayName("기록 도중 끊긴 꼬리 레코드는 다시 열 때 잘라내고 이어서 기록해야 한다")
+    void tornTail() throws Exception {
+        Path file = Files.createTempDirectory("order-journal").resolve("orders.journal");
+        try (OrderJournal journal = new OrderJournal(file, OrderJournal.Durability.SYNC)) {
+            journal.orderCreated(new Order(1L, "itemA", 10000, 1000));
+            journal.orderCreated(new Order(2L, "itemB", 20000, 0));
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(raw.length() - 3);
+        }
+
+        try (OrderJournal journal = new OrderJournal(file, OrderJournal.Durability.SYNC)) {
+            journal.orderCreated(new Order(3L, "itemC", 30000, 0));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        OrderJournal.replay(file, orders::add);
+        assertThat(orders).hasSize(2);
+        assertThat(orders.get(1).getMemberId()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("매핑 창 하나보다 큰 저널도 창 경계에 걸친 레코드까지 다시 열고 읽을 수 있어야 한다")
+    void replayAcrossWindows() throws Exception {
+        // given: 창(가장 긴 레코드 크기, 약 32KB)의 수백 배 크기, 가끔 창 크기에 가까운 긴 레코드를 섞는다
+        Path file = Files.createTempDirectory("order-journal").resolve("orders.journal");
+        String longName = "x".repeat(30_000);
+        int count = 200_000;
+        try (OrderJournal journal = new OrderJournal(file, OrderJournal.Durability.ASYNC)) {
+            for (int i = 0; i < count; i++) {
+                journal.orderCreated(new Order((long) i, i % 997 == 0 ? longName : "item" + i, 10000, 1000));
+            }
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(raw.length() - 3);
+        }
+
+        // when: 작은 창으로 다시 열어 끊긴 꼬리를 잘라내고 이어서 기록한다
+        try (OrderJournal journal = new OrderJournal(file, OrderJournal.Durability.SYNC, 10, 1)) {
+            journal.orderCreated(new Order((long) count, "itemLast", 10000, 1000));
+        }
+
+        // then
+        List<Order> windowed = new ArrayList<>();
+        long replayed = OrderJournal.replay(file, windowed::add, 1);
+        System.out.println("journal size = " + Files.size(file) + " bytes");
+        assertThat(replayed).isEqualTo((long) count);
+        for (int i = 0; i < count - 1; i++) {
+            assertThat(windowed.get(i).getMemberId()).isEqualTo((long) i);
+        }
+        assertThat(windowed.get(count - 1).getItemName()).isEqualTo("itemLast");
+        assertThat(windowed.get(997).getItemName()).isEqualTo(longName);
+        assertThat(OrderJournal.replay(file, order -> {
+        })).isEqualTo((long) count);
+    }
+
+    @Test
+    @DisplayName("close 와 겹친 기록은 거절되거나 저널에 남아야 하고, 조용히 사라지면 안 된다")
+    void closeWhileAppending() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            // given
+            Path file = Files.createTempDirectory("order-journal").resolve("orders.journal");
+            OrderJournal journal = new OrderJournal(file, OrderJournal.Durability.ASYNC);
+            AtomicLong accepted = new AtomicLong();
+
+            // when
+            runConcurrently(4, t -> {
+                if (t == 0) {
+                    Thread.sleep(5);
+                    journal.close();
+                    return;
+                }
+                for (int i = 0; i < 1_000_000; i++) {
+                    try {
+                        journal.orderCreated(new Order((long) t, "item" + i, 10000, 1000));
+                    } catch (IllegalStateException e) {
+                        return;
+                    }
+                    accepted.incrementAndGet();
+                }
+            });
+
+            // then
+            assertThat(OrderJournal.replay(file, order -> {
+            })).isEqualTo(accepted.get());
+        }
+    }
+
+    @Test
+    @DisplayName("ASYNC 동기화 스레드가 실패하면 원인을 남기고 끝나며, 이후 기록은 거절되어야 한다")
+    void flusherFailure() throws Exception {
+        // given
+        Path file = Files.createTempDirectory("order-journal").resolve("orders.journal");
+        OrderJournal journal = new OrderJournal(file, OrderJournal.Durability.ASYNC, 1);
+        journal.orderCreated(new Order(1L, "itemA", 10000, 1000));
+
+        // when: 동기화 중에 interrupt 되면 FileChannel 이 닫혀서 동기화가 실패한다
+        Thread flusher = journal.flusher();
+        List<Throwable> uncaught = Collections.synchronizedList(new ArrayList<>());
+        flusher.setUncaughtExceptionHandler((thread, e) -> uncaught.add(e));
+        while (flusher.isAlive()) {
+            journal.orderCreated(new Order(1L, "itemA", 10000, 1000));
+            flusher.interrupt();
+            flusher.join(10);
+        }
+
+        // then: 예외로 죽은 것이 아니라 실패를 기록하고 스스로 끝나야 한다
+        assertThat(uncaught).isEmpty();
+        assertThatThrownBy(() -> journal.orderCreated(new Order(1L, "itemB", 10000, 1000)))
+                .isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(journal::flush).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(journal::close).isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    @DisplayName("동시 주문은 GROUP 모드에서 fsync 한 번으로 묶여야 한다: SYNC vs GROUP vs ASYNC")
+    void groupCommit() throws Exception {
+        int threads = 16;
+        int ordersPerThread = 200;
+        for (OrderJournal.Durability durability : OrderJournal.Durability.values()) {
+            Path file = Files.createTempDirectory("order-journal").resolve("orders.journal");
+            long elapsed;
+            long syncCount;
+            try (OrderJournal journal = new OrderJournal(file, durability)) {
+                long start = System.nanoTime();
+                runConcurrently(threads, t -> {
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        journal.orderCreated(new Order((long) t, "item" + i, 10000, 1000));
+                    }
+                });
+                elapsed = System.nanoTime() - start;
+                journal.flush();
+                syncCount = journal.syncCount();
+            }
+
+            long total = (long) threads * ordersPerThread;
+            System.out.println(durability + " : " + total * 1_000_000_000L / elapsed + " orders/s, fsync = " + syncCount);
+            assertThat(OrderJournal.replay(file, order -> {
+            })).isEqualTo(total);
+            if (durability == OrderJournal.Durability.SYNC) {
+                assertThat(syncCount).isEqualTo(total);
+            } else {
+                assertThat(syncCount).isLessThan(total);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("replay 처리량")
+    void replayThroughput() throws Exception {
+        Path file = Files.createTempDirectory("order-journal").resolve("orders.journal");
+        int count = 2_000_000;
+        try (OrderJournal journal = new OrderJournal(file, OrderJournal.Durability.ASYNC)) {
+            for (int i = 0; i < count; i++) {
+                journal.orderCreated(new Order((long) (i % 1000), "item" + (i % 100), 10000, 1000));
+            }
+        }
+
+        long[] total = new long[1];
+        long start = System.nanoTime();
+        long replayed = OrderJournal.replay(file, order -> total[0] += order.calculatePrice());
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("journal size = " + Files.size(file) + " bytes");
+        System.out.println("replay = " + replayed * 1_000_000_000L / elapsed + " orders/s");
+        assertThat(replayed).isEqualTo((long) count);
+        assertThat(total[0]).isEqualTo(9000L * count);
+    }
+}
@@ -0,0 +1,126 @@
+package hello.core.order;
+
+import hello.core.discount.FixDiscountPolicy;
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.OpenAddressingMemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderRepricerTest {
+
+    @Test
+    @DisplayName("고정 할인에서 정률 할인으로 바꾸면 주문별 가격 변화를 알려줘야 한다")
+    void reprice() {
+        // given
+        MemberRepository memberRepository = new OpenAddressingMemberRepository();
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+        memberRepository.save(new Member(2L, "memberB", Grade.BASIC));
+        OrderBatch orders = new OrderBatch(
+                new long[]{11L, 12L, 13L, 14L, 15L},
+                new long[]{1L, 1L, 1L, 2L, 3L},
+                new String[]{"itemA", "itemB", "itemC", "itemA", "itemA"},
+                new int[]{10000, 20000, 5000, 10000, 10000},
+                new int[]{1000, 1000, 1000, 0, 1000});
+
+        // when
+        OrderRepricer.Repricing repricing = new OrderRepricer(memberRepository, new RateDiscountPolicy()).reprice(orders);
+
+        // then
+        System.out.println("repricing = " + repricing);
+        assertThat(repricing.priceDelta(0)).isEqualTo(0);
+        assertThat(repricing.priceDelta(1)).isEqualTo(-1000);
+        assertThat(repricing.priceDelta(2)).isEqualTo(500);
+        assertThat(repricing.priceDelta(3)).isEqualTo(0);
+        // 3번 회원은 없으므로 기존 할인 그대로
+        assertThat(repricing.getDiscountPrice(4)).isEqualTo(1000);
+        assertThat(repricing.increasedCount()).isEqualTo(1L);
+        assertThat(repricing.decreasedCount()).isEqualTo(1L);
+        assertThat(repricing.missingCount()).isEqualTo(1L);
+        assertThat(repricing.totalDelta()).isEqualTo(-500L);
+        assertThat(repricing.toBatch().getDiscountPrice(1)).isEqualTo(2000);
+        assertThat(repricing.toBatch().getOrderId(1)).isEqualTo(12L);
+    }
+
+    @Test
+    @DisplayName("병렬로 나눠 계산해도 한 스레드로 계산한 결과와 같아야 한다")
+    void parallelMatchesSequential() {
+        MemberRepository memberRepository = members(10_000);
+        OrderBatch orders = orders(100_000, 10_000);
+        ForkJoinPool single = new ForkJoinPool(1);
+
+        OrderRepricer.Repricing sequential = new OrderRepricer(memberRepository, new RateDiscountPolicy(), single).reprice(orders);
+        OrderRepricer.Repricing parallel = new OrderRepricer(memberRepository, new RateDiscountPolicy()).reprice(orders);
+
+        assertThat(parallel.totalDelta()).isEqualTo(sequential.totalDelta());
+        assertThat(parallel.increasedCount()).isEqualTo(sequential.increasedCount());
+        for (int i = 0; i < orders.size(); i++) {
+            assertThat(parallel.getDiscountPrice(i)).isEqualTo(sequential.getDiscountPrice(i));
+        }
+        single.shutdown();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("대량 재계산 처리량")
+    void throughput() {
+        MemberRepository memberRepository = members(100_000);
+        OrderBatch orders = orders(4_000_000, 100_000);
+        ForkJoinPool single = new ForkJoinPool(1);
+        OrderRepricer sequential = new OrderRepricer(memberRepository, new RateDiscountPolicy(), single);
+        OrderRepricer parallel = new OrderRepricer(memberRepository, new RateDiscountPolicy());
+
+        long sequentialNanos = 0;
+        long parallelNanos = 0;
+        // 처음 몇 번은 JIT 예열
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            sequential.reprice(orders);
+            sequentialNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            parallel.reprice(orders);
+            parallelNanos = System.nanoTime() - start;
+        }
+
+        System.out.println("cpus = " + Runtime.getRuntime().availableProcessors());
+        System.out.println("1 thread    : " + orders.size() * 1_000_000_000L / sequentialNanos + " orders/s");
+        System.out.println("common pool : " + orders.size() * 1_000_000_000L / parallelNanos + " orders/s");
+        single.shutdown();
+    }
+
+    private static MemberRepository members(int count) {
+        MemberRepository memberRepository = new OpenAddressingMemberRepository();
+        for (long id = 0; id < count; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 3 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        return memberRepository;
+    }
+
+    // FixDiscountPolicy 로 가격을 매긴 주문들. 같은 회원의 주문이 몇 건씩 이어진다
+    private static OrderBatch orders(int size, int memberCount) {
+        FixDiscountPolicy fixDiscountPolicy = new FixDiscountPolicy();
+        String[] names = {"itemA", "itemB", "itemC", "itemD"};
+        long[] orderIds = new long[size];
+        long[] memberIds = new long[size];
+        String[] itemNames = new String[size];
+        int[] itemPrices = new int[size];
+        int[] discountPrices = new int[size];
+        for (int i = 0; i < size; i++) {
+            orderIds[i] = i + 1;
+            memberIds[i] = (i / 4 * 7919L) % memberCount;
+            itemNames[i] = names[i & 3];
+            itemPrices[i] = 1000 * (1 + i % 30);
+            Grade grade = memberIds[i] % 3 == 0 ? Grade.VIP : Grade.BASIC;
+            discountPrices[i] = fixDiscountPolicy.discount(new Member(memberIds[i], null, grade), itemPrices[i]);
+        }
+        return new OrderBatch(orderIds, memberIds, itemNames, itemPrices, discountPrices);
+    }
+}
@@ -0,0 +1,50 @@
+package hello.core.order;
+
+import hello.core.common.SpaceSaving;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderSketchesTest {
+
+    AtomicLong now = new AtomicLong(1_000_000);
+    OrderSketches sketches = new OrderSketches(3, 1000, 100, 12, now::get);
+
+    @Test
+    @DisplayName("최근 구간의 인기 상품과 서로 다른 회원 수를 구해야 한다")
+    void topItemsAndDistinctMembers() {
+        // given
+        for (int i = 0; i < 10_000; i++) {
+            sketches.orderCreated(new Order((long) (i % 2000), i % 3 == 0 ? "itemA" : "item" + (i % 500), 10000, 0));
+        }
+
+        // when
+        List<SpaceSaving.Entry<String>> top = sketches.topItems(3);
+        long members = sketches.distinctMembers();
+
+        // then
+        System.out.println("top = " + top + ", distinctMembers = " + members);
+        assertThat(top.get(0).getItem()).isEqualTo("itemA");
+        assertThat(members).isBetween(1800L, 2200L);
+    }
+
+    @Test
+    @DisplayName("windowCount 개 구간이 지나면 예전 주문은 집계에서 빠져야 한다")
+    void slidingWindow() {
+        sketches.orderCreated(new Order(1L, "itemOld", 10000, 0));
+        now.addAndGet(1000);
+        sketches.orderCreated(new Order(2L, "itemNew", 10000, 0));
+        assertThat(sketches.distinctMembers()).isEqualTo(2L);
+
+        now.addAndGet(2000);
+        sketches.ordersCreated(new OrderBatch(new long[]{1L}, new long[]{3L}, new String[]{"itemNew"}, new int[]{10000}, new int[]{0}));
+
+        assertThat(sketches.distinctMembers()).isEqualTo(2L);
+        assertThat(sketches.topItems(10)).hasSize(1);
+        assertThat(sketches.topItems(10).get(0).getCount()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,193 @@
+package hello.core.order;
+
+import hello.core.discount.DiscountPolicy;
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.OpenAddressingMemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static hello.core.common.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.*;
+
+class PipelinedOrderServiceTest {
+
+    static final int THREADS = 4;
+
+    MemberRepository memberRepository = members();
+
+    static MemberRepository members() {
+        MemberRepository memberRepository = new OpenAddressingMemberRepository();
+        for (long id = 0; id < 1000; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        return memberRepository;
+    }
+
+    @Test
+    @DisplayName("파이프라인 주문은 OrderServiceImpl 과 같은 결과를 돌려줘야 한다")
+    void sameResult() {
+        OrderService orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+        try (PipelinedOrderService pipelined = new PipelinedOrderService(memberRepository, new RateDiscountPolicy())) {
+            for (long id = 0; id < 100; id++) {
+                Order expected = orderService.createOrder(id, "itemA", 10000 + (int) id);
+                Order order = pipelined.createOrder(id, "itemA", 10000 + (int) id);
+                assertThat(order.getDiscountPrice()).isEqualTo(expected.getDiscountPrice());
+                assertThat(order.getMemberId()).isEqualTo(id);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("할인 계산이 실패한 주문만 예외로 완료되어야 한다")
+    void failedOrder() {
+        try (PipelinedOrderService pipelined = new PipelinedOrderService(memberRepository, new RateDiscountPolicy())) {
+            CompletableFuture<Order> missing = pipelined.createOrderAsync(-1L, "itemA", 10000);
+            CompletableFuture<Order> found = pipelined.createOrderAsync(1L, "itemA", 10000);
+
+            assertThatThrownBy(missing::join).isInstanceOf(CompletionException.class);
+            assertThat(found.join().getDiscountPrice()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    @DisplayName("할인 계산에서 Error 가 나면 처리 중인 주문은 예외로 완료되고, 엔진은 이후 제출을 거절해야 한다")
+    void failedEngine() {
+        // given
+        DiscountPolicy broken = (member, price) -> {
+            if (member.getId() == 500L) {
+                throw new StackOverflowError("broken policy");
+            }
+            return 0;
+        };
+        PipelinedOrderService pipelined = new PipelinedOrderService(memberRepository, broken, 64);
+
+        // when
+        List<CompletableFuture<Order>> orders = new ArrayList<>();
+        try {
+            for (long id = 0; id < 1000; id++) {
+                orders.add(pipelined.createOrderAsync(id, "itemA", 10000));
+            }
+        } catch (IllegalStateException e) {
+            System.out.println("rejected after " + orders.size() + " orders: " + e.getMessage());
+        }
+
+        // then
+        assertThatThrownBy(() -> orders.get(500).join()).hasCauseInstanceOf(StackOverflowError.class);
+        assertThatThrownBy(() -> pipelined.createOrderAsync(1L, "itemA", 10000))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        pipelined.close();
+        for (CompletableFuture<Order> order : orders) {
+            assertThat(order.isDone()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("close 하면 이미 제출된 주문은 모두 처리되고, 이후 제출은 거절되어야 한다")
+    void close() {
+        PipelinedOrderService pipelined = new PipelinedOrderService(memberRepository, new RateDiscountPolicy(), 64);
+        CompletableFuture<?>[] orders = new CompletableFuture<?>[1000];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = pipelined.createOrderAsync((long) (i % 1000), "itemA", 10000);
+        }
+        pipelined.close();
+
+        for (CompletableFuture<?> order : orders) {
+            assertThat(order.isDone()).isTrue();
+        }
+        assertThatThrownBy(() -> pipelined.createOrder(1L, "itemA", 10000)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("지속 부하 처리량, 지연 백분위 비교: OrderServiceImpl vs PipelinedOrderService (메모리 저장소)")
+    void throughputAndLatency() throws Exception {
+        compare(memberRepository, 200_000);
+    }
+
+    @Test
+    @DisplayName("지속 부하 처리량, 지연 백분위 비교: OrderServiceImpl vs PipelinedOrderService (호출마다 20us 가 드는 저장소)")
+    void throughputAndLatencyWithRoundTrip() throws Exception {
+        RoundTripMemberRepository roundTrip = new RoundTripMemberRepository();
+        for (long id = 0; id < 1000; id++) {
+            roundTrip.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        compare(roundTrip, 20_000);
+    }
+
+    // 원격 저장소처럼 호출 한 번마다 고정 비용이 드는 저장소 (조회 건수와는 거의 무관)
+    static class RoundTripMemberRepository extends OpenAddressingMemberRepository {
+        @Override
+        public Member findById(long memberId) {
+            roundTrip();
+            return super.findById(memberId);
+        }
+
+        @Override
+        public Member[] findAllById(long[] memberIds) {
+            roundTrip();
+            return super.findAllById(memberIds);
+        }
+
+        private static void roundTrip() {
+            long until = System.nanoTime() + 20_000;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static void compare(MemberRepository memberRepository, int ordersPerThread) throws Exception {
+        OrderService orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+        long[][] directLatencies = new long[THREADS][ordersPerThread];
+        long start = System.nanoTime();
+        runConcurrently(THREADS, t -> {
+            for (int i = 0; i < ordersPerThread; i++) {
+                long begin = System.nanoTime();
+                orderService.createOrder((long) (i % 1000), "itemA", 10000);
+                directLatencies[t][i] = System.nanoTime() - begin;
+            }
+        });
+        long directElapsed = System.nanoTime() - start;
+
+        long[][] pipelinedLatencies = new long[THREADS][ordersPerThread];
+        try (PipelinedOrderService pipelined = new PipelinedOrderService(memberRepository, new RateDiscountPolicy())) {
+            start = System.nanoTime();
+            runConcurrently(THREADS, t -> {
+                CompletableFuture<?>[] orders = new CompletableFuture<?>[ordersPerThread];
+                for (int i = 0; i < ordersPerThread; i++) {
+                    int index = i;
+                    long begin = System.nanoTime();
+                    orders[i] = pipelined.createOrderAsync((long) (i % 1000), "itemA", 10000)
+                            .thenRun(() -> pipelinedLatencies[t][index] = System.nanoTime() - begin);
+                }
+                CompletableFuture.allOf(orders).join();
+            });
+        }
+        long pipelinedElapsed = System.nanoTime() - start;
+
+        System.out.println("cpus = " + Runtime.getRuntime().availableProcessors());
+        report("OrderServiceImpl      ", directElapsed, directLatencies);
+        report("PipelinedOrderService ", pipelinedElapsed, pipelinedLatencies);
+    }
+
+    private static void report(String name, long elapsed, long[][] latencies) {
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.println(name + ": " + all.length * 1_000_000_000L / elapsed + " orders/s"
+                + ", p50 = " + percentile(all, 0.50) / 1000 + "us"
+                + ", p99 = " + percentile(all, 0.99) / 1000 + "us"
+                + ", p99.9 = " + percentile(all, 0.999) / 1000 + "us");
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.max(0, (int) Math.ceil(sorted.length * p) - 1)];
+    }
+}